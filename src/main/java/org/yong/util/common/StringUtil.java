@@ -485,4 +485,33 @@ public final class StringUtil extends StringUtils {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * 去掉前后空白, 并将中间连续的空白字符(空格/制表/换行/回车/换页)合并为一个空格.
+     * 与 dom4j {@code Element.getTextTrim()} 的处理规则保持一致
+     *
+     * @param text 原始文本
+     * @return 处理后的文本, text为null时返回{@link #EMPTY}
+     */
+    public static String collapseWhitespace(CharSequence text) {
+        if (null == text)
+            return EMPTY;
+
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0, len = text.length(); i < len; i++) {
+            char c = text.charAt(i);
+            if (' ' == c || '\t' == c || '\n' == c || '\r' == c || '\f' == c) {
+                pendingSpace = 0 < sb.length();
+                continue;
+            }
+
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,193 @@
+package org.yong.util.file.xml;
+
+import org.yong.util.file.xml.annotation.XmlField;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预编译的子标签路径, 每一级为 <i>tagName</i> 或 <i>tagName[index]</i>, 索引从0开始, 省略时为0.<br>
+ * 编译后的路径不可变, 可在多线程间共享; 寻路时不分配任何对象, 也不会为不存在的子标签创建空列表.
+ * {@link XmlField#path()} 编译结果按字段缓存
+ *
+ * <pre>
+ * CompiledPath path = CompiledPath.compile("TourTask[1]", "TourStation");
+ * XMLObject station = root.select(path);
+ * </pre>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ * @see XMLObject#select(CompiledPath)
+ */
+public final class CompiledPath {
+
+    /**
+     * 空路径, 寻路结果为起点本身
+     */
+    public static final CompiledPath EMPTY = new CompiledPath(new String[0], new int[0]);
+
+    /**
+     * 字段路径缓存
+     */
+    private static final Map<Field, CompiledPath> FIELD_PATHS = new ConcurrentHashMap<>();
+
+    /**
+     * 每一级子标签名
+     */
+    private final String[] tagNames;
+
+    /**
+     * 每一级子标签索引
+     */
+    private final int[] indexes;
+
+    private CompiledPath(String[] tagNames, int[] indexes) {
+        this.tagNames = tagNames;
+        this.indexes = indexes;
+    }
+
+    /**
+     * 编译路径
+     *
+     * @param path 每一级路径, 格式: tagName 或 tagName[index]
+     * @return CompiledPath 编译后的路径
+     * @throws IllegalArgumentException 路径格式错误时
+     */
+    public static CompiledPath compile(String... path) {
+        if (null == path || 0 == path.length)
+            return EMPTY;
+
+        String[] tagNames = new String[path.length];
+        int[] indexes = new int[path.length];
+        for (int i = 0; i < path.length; i++) {
+            String node = path[i];
+            if (null == node || node.isEmpty())
+                throw new IllegalArgumentException("无效的子标签路径: " + Arrays.toString(path));
+
+            int indexStart = node.indexOf('[');
+            if (-1 == indexStart) {
+                tagNames[i] = node;
+                continue;
+            }
+
+            int indexEnd = node.length() - 1;
+            if (0 == indexStart || ']' != node.charAt(indexEnd) || node.indexOf('[', indexStart + 1) != -1)
+                throw new IllegalArgumentException("无效的子标签索引规则: " + node + ", 最多支持一维数组索引.");
+
+            tagNames[i] = node.substring(0, indexStart);
+            indexes[i] = parseIndex(node, indexStart + 1, indexEnd);
+        }
+        return new CompiledPath(tagNames, indexes);
+    }
+
+    /**
+     * 获取字段 {@link XmlField#path()} 的编译结果, 按字段缓存
+     *
+     * @param field    字段
+     * @param xmlField 字段映射注解
+     * @return CompiledPath 编译后的路径
+     */
+    static CompiledPath of(Field field, XmlField xmlField) {
+        CompiledPath path = FIELD_PATHS.get(field);
+        if (null == path) {
+            path = compile(xmlField.path());
+            FIELD_PATHS.putIfAbsent(field, path);
+        }
+        return path;
+    }
+
+    /**
+     * 从指定节点出发寻路
+     *
+     * @param from 起点
+     * @return XMLObject 目标节点, 任意一级子标签不存在时返回null
+     */
+    XMLObject select(XMLObject from) {
+        XMLObject target = from;
+        for (int i = 0; i < tagNames.length && null != target; i++) {
+            List<XMLObject> children = target.getChildTags().get(tagNames[i]);
+            int index = indexes[i];
+            target = null != children && index < children.size() ? children.get(index) : null;
+        }
+        return target;
+    }
+
+    /**
+     * 获取路径级数
+     *
+     * @return int 路径级数
+     */
+    public int size() {
+        return tagNames.length;
+    }
+
+    /**
+     * 获取指定级子标签名
+     *
+     * @param level 级数, 从0开始
+     * @return String 子标签名
+     */
+    public String getTagName(int level) {
+        return tagNames[level];
+    }
+
+    /**
+     * 获取指定级子标签索引
+     *
+     * @param level 级数, 从0开始
+     * @return int 子标签索引
+     */
+    public int getIndex(int level) {
+        return indexes[level];
+    }
+
+    /**
+     * 解析非负整数索引
+     *
+     * @param node  路径节点
+     * @param start 索引开始位置
+     * @param end   索引结束位置(不包含)
+     * @return int 索引
+     */
+    private static int parseIndex(String node, int start, int end) {
+        if (start == end)
+            throw new IllegalArgumentException("索引下标[" + node + "]解析失败不能转化为数字");
+
+        int index = 0;
+        for (int i = start; i < end; i++) {
+            char c = node.charAt(i);
+            if (c < '0' || c > '9' || index > (Integer.MAX_VALUE - 9) / 10)
+                throw new IllegalArgumentException("索引下标[" + node.substring(start, end) + "]解析失败不能转化为数字");
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompiledPath)) return false;
+        CompiledPath that = (CompiledPath) o;
+        return Arrays.equals(tagNames, that.tagNames) && Arrays.equals(indexes, that.indexes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(tagNames) + Arrays.hashCode(indexes);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < tagNames.length; i++) {
+            if (0 < i)
+                sb.append('/');
+            sb.append(tagNames[i]).append('[').append(indexes[i]).append(']');
+        }
+        return sb.toString();
+    }
+
+}
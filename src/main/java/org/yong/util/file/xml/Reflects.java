@@ -99,16 +99,16 @@ public class Reflects {
     }
 
     /**
-     * 获取指定类公开/继承/私有字段
+     * 获取指定类公开/继承/私有字段, 当前类声明的公开字段只返回一次
      *
      * @param cls 目标类字节码
      * @param <T> 目标类类型
      * @return 字段列表
      */
     public static <T> List<Field> getFields(Class<T> cls) {
-        List<Field> fields = Lists.newArrayList(Arrays.asList(cls.getFields()));
+        Set<Field> fields = new LinkedHashSet<>(Arrays.asList(cls.getFields()));
         fields.addAll(Arrays.asList(cls.getDeclaredFields()));
-        return fields;
+        return Lists.newArrayList(fields);
     }
 
     /**
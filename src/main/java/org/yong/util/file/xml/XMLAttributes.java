@@ -0,0 +1,226 @@
+package org.yong.util.file.xml;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * 紧凑的标签属性表, 属性名和属性值交替存放在同一个数组中, 按插入顺序线性查找.
+ * <p>
+ * 标签属性通常只有0到5个, 线性查找比哈希查找更快且没有哈希表和条目对象的额外内存;
+ * 数组按实际属性数分配, 没有属性时共享同一个空数组.
+ * 属性名比较先比较引用(解析引擎生成的属性名已规范化), 再比较内容.
+ * </p>
+ * 非线程安全.
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class XMLAttributes extends AbstractMap<String, String> implements Serializable {
+
+    private static final long serialVersionUID = -3021786311564092387L;
+
+    private static final String[] EMPTY = new String[0];
+
+    /**
+     * 超过此属性数后按倍数扩容, 避免逐个添加时反复复制
+     */
+    private static final int EXACT_LIMIT = 8;
+
+    /**
+     * 属性名和属性值交替存放: [name0, value0, name1, value1, ...]
+     */
+    private String[] table = EMPTY;
+
+    private int size;
+
+    public XMLAttributes() {
+    }
+
+    /**
+     * @param capacity 预计属性数
+     */
+    public XMLAttributes(int capacity) {
+        if (0 < capacity)
+            table = new String[capacity << 1];
+    }
+
+    /**
+     * @param attrs 初始属性
+     */
+    public XMLAttributes(Map<String, String> attrs) {
+        this(attrs.size());
+        putAll(attrs);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        return 0 <= indexOf(name);
+    }
+
+    @Override
+    public String get(Object name) {
+        int idx = indexOf(name);
+        return 0 > idx ? null : table[idx + 1];
+    }
+
+    @Override
+    public String put(String name, String value) {
+        int idx = indexOf(name);
+        if (0 <= idx) {
+            String old = table[idx + 1];
+            table[idx + 1] = value;
+            return old;
+        }
+
+        idx = size << 1;
+        if (idx == table.length)
+            table = Arrays.copyOf(table, size < EXACT_LIMIT ? idx + 2 : idx << 1);
+        table[idx] = name;
+        table[idx + 1] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    public String remove(Object name) {
+        int idx = indexOf(name);
+        if (0 > idx)
+            return null;
+
+        String old = table[idx + 1];
+        removeAt(idx);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        table = EMPTY;
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new EntrySet();
+    }
+
+    /**
+     * 查找属性名位置
+     *
+     * @param name 属性名
+     * @return int 属性名在数组中的下标, 不存在时返回-1
+     */
+    private int indexOf(Object name) {
+        String[] tab = table;
+        int end = size << 1;
+        for (int i = 0; i < end; i += 2)
+            if (tab[i] == name)
+                return i;
+        if (null == name)
+            return -1;
+        for (int i = 0; i < end; i += 2)
+            if (name.equals(tab[i]))
+                return i;
+        return -1;
+    }
+
+    private void removeAt(int idx) {
+        int end = size << 1;
+        System.arraycopy(table, idx + 2, table, idx, end - idx - 2);
+        table[end - 2] = null;
+        table[end - 1] = null;
+        size--;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, String>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new Iterator<Entry<String, String>>() {
+
+                private int next;
+
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size << 1;
+                }
+
+                @Override
+                public Entry<String, String> next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    last = next;
+                    next += 2;
+                    return new AttrEntry(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (0 > last)
+                        throw new IllegalStateException();
+                    removeAt(last);
+                    next = last;
+                    last = -1;
+                }
+            };
+        }
+    }
+
+    /**
+     * 属性条目, 修改值时直接写回属性表
+     */
+    private class AttrEntry implements Entry<String, String> {
+
+        private final int idx;
+
+        AttrEntry(int idx) {
+            this.idx = idx;
+        }
+
+        @Override
+        public String getKey() {
+            return table[idx];
+        }
+
+        @Override
+        public String getValue() {
+            return table[idx + 1];
+        }
+
+        @Override
+        public String setValue(String value) {
+            String old = table[idx + 1];
+            table[idx + 1] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry))
+                return false;
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
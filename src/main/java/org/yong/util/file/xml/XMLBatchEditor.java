@@ -0,0 +1,367 @@
+package org.yong.util.file.xml;
+
+import com.google.common.collect.Lists;
+import org.yong.util.common.StringUtil;
+
+import java.util.*;
+
+/**
+ * 批量编辑器, 记录多个插入/移动/删除操作, 执行{@link #apply()}时每个受影响的同名子标签列表只重建一次.<br>
+ * 节点按引用定位, 不使用{@link XMLObject#equals(Object)}比较; 同一批次中每个节点只能被移动或删除一次,
+ * 被移动或删除的节点不能再作为标记节点. 相同位置的多次插入按调用顺序排列
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ * @see XMLObject#edit()
+ */
+public class XMLBatchEditor {
+
+    /**
+     * 编辑范围, 所有父节点和标记节点都必须属于此节点树
+     */
+    private final XMLObject owner;
+
+    /**
+     * 被移动或删除的节点, Value: true-移动, false-删除
+     */
+    private final Map<XMLObject, Boolean> pending = new IdentityHashMap<>();
+
+    /**
+     * 被移动节点的新父节点, 用于检查批次中的移动是否形成环
+     */
+    private final Map<XMLObject, XMLObject> destinations = new IdentityHashMap<>();
+
+    /**
+     * 标记节点之前插入的节点
+     */
+    private final Map<XMLObject, List<XMLObject>> before = new IdentityHashMap<>();
+
+    /**
+     * 标记节点之后插入的节点
+     */
+    private final Map<XMLObject, List<XMLObject>> after = new IdentityHashMap<>();
+
+    /**
+     * 受影响的子标签列表, Key: 父节点, Value: 标签名与列表编辑记录
+     */
+    private final Map<XMLObject, Map<String, Slot>> slots = new IdentityHashMap<>();
+
+    /**
+     * 已记录的操作数
+     */
+    private int operations;
+
+    /**
+     * 创建批量编辑器
+     *
+     * @param owner 编辑范围
+     */
+    XMLBatchEditor(XMLObject owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * 插入到父节点同名子标签的最前面(内部)
+     *
+     * @param node       目标节点, 可以是漂浮节点或当前节点树中的节点
+     * @param parentNode 父节点
+     * @return XMLBatchEditor 当前编辑器
+     */
+    public XMLBatchEditor insertBefore(XMLObject node, XMLObject parentNode) {
+        checkParent(node, parentNode);
+        move(node, parentNode);
+        slot(parentNode, node.getTagName()).first.add(node);
+        return this;
+    }
+
+    /**
+     * 插入到父节点同名子标签的最后面(内部)
+     *
+     * @param node       目标节点, 可以是漂浮节点或当前节点树中的节点
+     * @param parentNode 父节点
+     * @return XMLBatchEditor 当前编辑器
+     */
+    public XMLBatchEditor insertAfter(XMLObject node, XMLObject parentNode) {
+        checkParent(node, parentNode);
+        move(node, parentNode);
+        slot(parentNode, node.getTagName()).last.add(node);
+        return this;
+    }
+
+    /**
+     * 追加到标记节点之前(外部), 标记节点必须和目标节点同名
+     *
+     * @param node       目标节点
+     * @param markerNode 标记节点
+     * @return XMLBatchEditor 当前编辑器
+     */
+    public XMLBatchEditor appendBefore(XMLObject node, XMLObject markerNode) {
+        checkMarker(node, markerNode);
+        move(node, markerNode.getParent());
+        slot(markerNode.getParent(), markerNode.getTagName());
+        before.computeIfAbsent(markerNode, k -> Lists.newArrayList()).add(node);
+        return this;
+    }
+
+    /**
+     * 追加到标记节点之后(外部), 标记节点必须和目标节点同名
+     *
+     * @param node       目标节点
+     * @param markerNode 标记节点
+     * @return XMLBatchEditor 当前编辑器
+     */
+    public XMLBatchEditor appendAfter(XMLObject node, XMLObject markerNode) {
+        checkMarker(node, markerNode);
+        move(node, markerNode.getParent());
+        slot(markerNode.getParent(), markerNode.getTagName());
+        after.computeIfAbsent(markerNode, k -> Lists.newArrayList()).add(node);
+        return this;
+    }
+
+    /**
+     * 从父节点中删除
+     *
+     * @param node 目标节点
+     * @return XMLBatchEditor 当前编辑器
+     */
+    public XMLBatchEditor remove(XMLObject node) {
+        checkNode(node);
+        if (null == node.getParent() || !contains(node.getParent()))
+            throw new IllegalArgumentException("节点[" + node.getTagName() + "]不属于当前节点树");
+
+        pending.put(node, Boolean.FALSE);
+        slot(node.getParent(), node.getTagName());
+        operations++;
+        return this;
+    }
+
+    /**
+     * 执行所有操作; 所有列表重建完成后才写回, 标记节点失效时不修改任何节点
+     *
+     * @return int 执行的操作数
+     */
+    public int apply() {
+        List<Slot> order = Lists.newArrayList();
+        int inserted = 0;
+        int expected = 0;
+        for (Boolean moved : pending.values())
+            expected += moved ? 1 : 0;
+
+        // 重建所有受影响的列表
+        for (Map<String, Slot> parentSlots : slots.values()) {
+            for (Slot slot : parentSlots.values()) {
+                List<XMLObject> origin = slot.parent.getChildTags().get(slot.tagName);
+                int size = null == origin ? 0 : origin.size();
+                List<XMLObject> result = new ArrayList<>(size + slot.first.size() + slot.last.size());
+
+                inserted += addAll(result, slot.first);
+                if (null != origin) {
+                    for (XMLObject child : origin) {
+                        inserted += addAll(result, before.get(child));
+                        if (!pending.containsKey(child))
+                            result.add(child);
+                        inserted += addAll(result, after.get(child));
+                    }
+                }
+                inserted += addAll(result, slot.last);
+
+                slot.result = result;
+                order.add(slot);
+            }
+        }
+
+        if (inserted != expected)
+            throw new IllegalStateException("标记节点已不在父节点的子标签列表中");
+
+        // 写回
+        for (XMLObject node : pending.keySet())
+            node.setParent(null);
+        for (Slot slot : order) {
+            Map<String, List<XMLObject>> parentChildren = slot.parent.getChildTags();
+            List<XMLObject> origin = parentChildren.get(slot.tagName);
+            if (slot.result.isEmpty()) {
+                parentChildren.remove(slot.tagName);
+            } else if (null == origin) {
+                parentChildren.put(slot.tagName, slot.result);
+            } else {
+                origin.clear();
+                origin.addAll(slot.result);
+            }
+
+            for (XMLObject child : slot.result) {
+                if (pending.containsKey(child))
+                    child.setParent(slot.parent);
+            }
+        }
+
+        int count = operations;
+        pending.clear();
+        destinations.clear();
+        before.clear();
+        after.clear();
+        slots.clear();
+        operations = 0;
+        return count;
+    }
+
+    /**
+     * 添加全部节点
+     *
+     * @param result 目标列表
+     * @param nodes  待添加节点, 可以为null
+     * @return int 添加的节点数
+     */
+    private int addAll(List<XMLObject> result, List<XMLObject> nodes) {
+        if (null == nodes)
+            return 0;
+        result.addAll(nodes);
+        return nodes.size();
+    }
+
+    /**
+     * 记录移动节点, 原父节点的列表同时需要重建
+     *
+     * @param node      目标节点
+     * @param newParent 新父节点
+     */
+    private void move(XMLObject node, XMLObject newParent) {
+        XMLObject currParent = node.getParent();
+        if (null != currParent) {
+            if (currParent.isFrozen())
+                throw new UnsupportedOperationException("节点[" + currParent.getTagName() + "]已冻结, 不允许修改");
+            if (!contains(currParent))
+                throw new IllegalArgumentException("节点[" + node.getTagName() + "]不属于当前节点树");
+            slot(currParent, node.getTagName());
+        }
+
+        pending.put(node, Boolean.TRUE);
+        destinations.put(node, newParent);
+        operations++;
+    }
+
+    /**
+     * 获取列表编辑记录
+     *
+     * @param parent  父节点
+     * @param tagName 标签名
+     * @return Slot 编辑记录
+     */
+    private Slot slot(XMLObject parent, String tagName) {
+        return slots.computeIfAbsent(parent, k -> new LinkedHashMap<>())
+                .computeIfAbsent(tagName, k -> new Slot(parent, tagName));
+    }
+
+    /**
+     * 验证目标节点可以被移动或删除
+     *
+     * @param node 目标节点
+     */
+    private void checkNode(XMLObject node) {
+        if (null == node || StringUtil.isBlank(node.getTagName()))
+            throw new IllegalArgumentException("目标节点未指定有效标签名称");
+        if (node.isRootElement())
+            throw new IllegalArgumentException("根节点不支持当前操作");
+        if (node.isFrozen())
+            throw new UnsupportedOperationException("节点[" + node.getTagName() + "]已冻结, 不允许修改");
+        if (pending.containsKey(node))
+            throw new IllegalArgumentException("节点[" + node.getTagName() + "]在当前批次中已被移动或删除");
+        if (before.containsKey(node) || after.containsKey(node))
+            throw new IllegalArgumentException("节点[" + node.getTagName() + "]在当前批次中已作为标记节点");
+    }
+
+    /**
+     * 验证目标父节点, 父节点必须属于当前节点树且不能是目标节点的后代;
+     * 沿祖先链检查时使用当前批次中已记录的新父节点, 避免多次移动形成环
+     *
+     * @param node       目标节点
+     * @param parentNode 父节点
+     */
+    private void checkParent(XMLObject node, XMLObject parentNode) {
+        checkNode(node);
+        if (null == parentNode || !contains(parentNode))
+            throw new IllegalArgumentException("父节点不属于当前节点树");
+        if (parentNode.isFrozen())
+            throw new UnsupportedOperationException("节点[" + parentNode.getTagName() + "]已冻结, 不允许修改");
+        if (pending.get(parentNode) == Boolean.FALSE)
+            throw new IllegalArgumentException("父节点在当前批次中已被删除");
+
+        for (XMLObject curr = parentNode; null != curr; curr = ancestor(curr)) {
+            if (curr == node)
+                throw new IllegalArgumentException("节点不能插入到自身或后代节点中");
+        }
+    }
+
+    /**
+     * 获取执行当前批次后的父节点
+     *
+     * @param node 节点
+     * @return XMLObject 父节点
+     */
+    private XMLObject ancestor(XMLObject node) {
+        XMLObject destination = destinations.get(node);
+        return null != destination ? destination : node.getParent();
+    }
+
+    /**
+     * 验证标记节点
+     *
+     * @param node       目标节点
+     * @param markerNode 标记节点
+     */
+    private void checkMarker(XMLObject node, XMLObject markerNode) {
+        if (node == markerNode)
+            throw new IllegalArgumentException("目标节点不能是当前节点");
+        if (null == markerNode || markerNode.isRootElement() || null == markerNode.getParent())
+            throw new IllegalArgumentException("标记节点不能是根节点或漂浮节点");
+        if (pending.containsKey(markerNode))
+            throw new IllegalArgumentException("标记节点在当前批次中已被移动或删除");
+        if (!StringUtil.equals(node.getTagName(), markerNode.getTagName()))
+            throw new IllegalArgumentException("标记节点必须和当前节点同名");
+        checkParent(node, markerNode.getParent());
+    }
+
+    /**
+     * 是否属于当前节点树
+     *
+     * @param node 节点
+     * @return boolean true-属于, false-不属于
+     */
+    private boolean contains(XMLObject node) {
+        for (XMLObject curr = node; null != curr; curr = curr.getParent()) {
+            if (curr == owner)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * 同名子标签列表的编辑记录
+     */
+    private static class Slot {
+
+        private final XMLObject parent;
+
+        private final String tagName;
+
+        /**
+         * 插入到最前面的节点
+         */
+        private final List<XMLObject> first = Lists.newArrayList();
+
+        /**
+         * 插入到最后面的节点
+         */
+        private final List<XMLObject> last = Lists.newArrayList();
+
+        /**
+         * 重建结果
+         */
+        private List<XMLObject> result;
+
+        Slot(XMLObject parent, String tagName) {
+            this.parent = parent;
+            this.tagName = tagName;
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+package org.yong.util.file.xml;
+
+import com.google.common.collect.Maps;
+import lombok.extern.slf4j.Slf4j;
+import org.yong.util.file.FileUtil;
+import org.yong.util.file.xml.engine.ParseMode;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.engine.XMLParseEngineFactory;
+import org.yong.util.file.xml.source.XMLSourceFactory;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * 目录批量解析, 使用固定大小的线程池并发解析目录中所有 .xml 文件.
+ * <p>
+ * 提交线程在进行中的文件数达到上限时阻塞(背压), 同一时间最多只有 2 * concurrency 个文件在排队或解析,
+ * 配合 {@link #parseAll(File, ParseMode, int, BiConsumer)} 逐个处理结果即可限制内存占用.
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ * @see XMLParser#parseAll(File)
+ */
+@Slf4j
+public class XMLBatchParser {
+
+    /**
+     * 解析目录中所有 UTF-8 编码的 .xml 文件, 结果全部保留在返回值中
+     *
+     * @param dir         目录
+     * @param parseMode   解析模式
+     * @param concurrency 并发解析的线程数
+     * @return Map&lt;String, XMLParseResult&gt; 解析结果, Key:文件名, 顺序与 {@link FileUtil#mapDir(File)} 一致
+     */
+    public static Map<String, XMLParseResult> parseAll(File dir, ParseMode parseMode, int concurrency) {
+        return parseAll(dir, XMLParseEngineFactory.getEngine(parseMode), StandardCharsets.UTF_8.name(), concurrency);
+    }
+
+    /**
+     * 解析目录中所有 .xml 文件, 结果全部保留在返回值中
+     *
+     * @param dir         目录
+     * @param engine      解析引擎, 必须线程安全
+     * @param encoding    文件编码
+     * @param concurrency 并发解析的线程数
+     * @return Map&lt;String, XMLParseResult&gt; 解析结果, Key:文件名, 顺序与 {@link FileUtil#mapDir(File)} 一致
+     */
+    public static Map<String, XMLParseResult> parseAll(File dir, XMLParseEngine engine, String encoding, int concurrency) {
+        Map<String, XMLParseResult> results = new ConcurrentHashMap<>();
+        Map<String, File> files = listXmlFiles(dir);
+        parseAll(files, engine, encoding, concurrency, results::put);
+
+        Map<String, XMLParseResult> ordered = Maps.newLinkedHashMap();
+        for (String name : files.keySet())
+            ordered.put(name, results.get(name));
+        return ordered;
+    }
+
+    /**
+     * 解析目录中所有 UTF-8 编码的 .xml 文件, 每个文件解析完成后立即回调, 不保留解析结果.
+     * 回调在解析线程中执行, 需要保证线程安全
+     *
+     * @param dir         目录
+     * @param parseMode   解析模式
+     * @param concurrency 并发解析的线程数
+     * @param consumer    结果回调, 参数: 文件名, 解析结果
+     */
+    public static void parseAll(File dir, ParseMode parseMode, int concurrency, BiConsumer<String, XMLParseResult> consumer) {
+        parseAll(dir, XMLParseEngineFactory.getEngine(parseMode), StandardCharsets.UTF_8.name(), concurrency, consumer);
+    }
+
+    /**
+     * 解析目录中所有 .xml 文件, 每个文件解析完成后立即回调, 不保留解析结果.
+     * 回调在解析线程中执行, 需要保证线程安全
+     *
+     * @param dir         目录
+     * @param engine      解析引擎, 必须线程安全
+     * @param encoding    文件编码
+     * @param concurrency 并发解析的线程数
+     * @param consumer    结果回调, 参数: 文件名, 解析结果
+     */
+    public static void parseAll(File dir, XMLParseEngine engine, String encoding, int concurrency, BiConsumer<String, XMLParseResult> consumer) {
+        parseAll(listXmlFiles(dir), engine, encoding, concurrency, consumer);
+    }
+
+    private static void parseAll(Map<String, File> files, XMLParseEngine engine, String encoding, int concurrency, BiConsumer<String, XMLParseResult> consumer) {
+        if (0 >= concurrency)
+            throw new IllegalArgumentException("并发数必须大于0[concurrency=" + concurrency + "]");
+        if (files.isEmpty())
+            return;
+
+        int maxInFlight = concurrency * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicReference<Throwable> callbackError = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, new BatchThreadFactory());
+        try {
+            for (Map.Entry<String, File> me : files.entrySet()) {
+                inFlight.acquire();
+                if (null != callbackError.get()) {
+                    inFlight.release();
+                    break;
+                }
+
+                String name = me.getKey();
+                File file = me.getValue();
+                executor.execute(() -> {
+                    try {
+                        consumer.accept(name, parse(file, engine, encoding));
+                    } catch (Throwable e) {
+                        callbackError.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+
+            // 等待所有文件处理完成
+            inFlight.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("批量解析被中断", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 回调只会抛出非受检异常
+        Throwable error = callbackError.get();
+        if (error instanceof Error)
+            throw (Error) error;
+        if (null != error)
+            throw (RuntimeException) error;
+    }
+
+    /**
+     * 解析单个文件, 异常和错误都记录在结果中
+     *
+     * @param file     文件
+     * @param engine   解析引擎
+     * @param encoding 文件编码
+     * @return XMLParseResult 解析结果
+     */
+    private static XMLParseResult parse(File file, XMLParseEngine engine, String encoding) {
+        try {
+            XMLObject root = engine.parse(XMLSourceFactory.fromFile(file, encoding));
+            return XMLParseResult.success(file, root);
+        } catch (Throwable e) {
+            log.debug("文件解析失败[" + file + "]", e);
+            return XMLParseResult.failure(file, e);
+        }
+    }
+
+    /**
+     * 列出目录中所有 .xml 文件
+     *
+     * @param dir 目录
+     * @return Map&lt;String, File&gt; Key:文件名
+     */
+    private static Map<String, File> listXmlFiles(File dir) {
+        Map<String, File> all = FileUtil.mapDir(dir);
+        if (null == all)
+            throw new IllegalArgumentException("不是有效目录[dir=" + dir + "]");
+
+        Map<String, File> files = Maps.newLinkedHashMap();
+        for (Map.Entry<String, File> me : all.entrySet())
+            if (me.getKey().endsWith(".xml") && me.getValue().isFile())
+                files.put(me.getKey(), me.getValue());
+        return files;
+    }
+
+    /**
+     * 批量解析线程工厂, 使用守护线程
+     */
+    private static class BatchThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_SEQ = new AtomicInteger();
+
+        private final int poolSeq = POOL_SEQ.incrementAndGet();
+
+        private final AtomicInteger threadSeq = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "xml-batch-" + poolSeq + "-" + threadSeq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package org.yong.util.file.xml;
+
+import org.yong.util.common.StringUtil;
+import org.yong.util.file.xml.annotation.FieldType;
+import org.yong.util.file.xml.annotation.XmlField;
+import org.yong.util.file.xml.annotation.XmlTag;
+import org.yong.util.file.xml.parser.FieldValueParserFactory;
+import org.yong.util.file.xml.parser.iface.SimpleValueParser;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * 实体类映射计划, 每个实体类只解析一次字段列表, 注解, 路径和字段值解析器, 保存在 {@link ClassValue} 中.<br>
+ * {@link XMLObject#toBean(Class)} 和 {@link XMLObject#of(Object)} 共用同一个映射计划;
+ * 字段值解析器在 {@link FieldValueParserFactory} 注册新解析器后重新获取.
+ * <p>
+ * 构造器和字段读写使用 {@link MethodHandle}, 在创建计划时统一为 Object 参数类型,
+ * 映射时通过 invokeExact 调用, 不再经过 {@link Field#set(Object, Object)} 的访问检查
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+final class XMLBindingPlan {
+
+    /**
+     * 构造器统一类型: () -&gt; Object
+     */
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    /**
+     * 字段写入统一类型: (Object bean, Object value) -&gt; void
+     */
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * 字段读取统一类型: (Object bean) -&gt; Object
+     */
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<XMLBindingPlan> PLANS = new ClassValue<XMLBindingPlan>() {
+        @Override
+        protected XMLBindingPlan computeValue(Class<?> type) {
+            return new XMLBindingPlan(type);
+        }
+    };
+
+    final Class<?> type;
+
+    /**
+     * {@link XmlTag @XmlTag} 注解, 没有时为null
+     */
+    final XmlTag xmlTag;
+
+    /**
+     * 期望标签名, 没有注解或注解值为空时为null
+     */
+    final String expectTagName;
+
+    /**
+     * 导出时使用的标签名, 没有注解时为null
+     */
+    final String tagName;
+
+    /**
+     * 被 {@link XmlField @XmlField} 注解的非静态非常量字段
+     */
+    final FieldBinding[] fields;
+
+    /**
+     * 无参构造器, 不可用时为null
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * 无参构造器不可用的原因
+     */
+    private final ReflectiveOperationException constructorError;
+
+    private XMLBindingPlan(Class<?> type) {
+        this.type = type;
+
+        MethodHandle handle = null;
+        ReflectiveOperationException error = null;
+        try {
+            if (Modifier.isAbstract(type.getModifiers()))
+                throw new InstantiationException(type.getName());
+            Constructor<?> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            handle = MethodHandles.lookup().unreflectConstructor(ctor).asType(CONSTRUCTOR_TYPE);
+        } catch (ReflectiveOperationException e) {
+            error = e;
+        }
+        this.constructor = handle;
+        this.constructorError = error;
+        this.xmlTag = type.getAnnotation(XmlTag.class);
+        if (null == xmlTag) {
+            this.expectTagName = null;
+            this.tagName = null;
+        } else {
+            String expectName = StringUtil.trimToEmpty(xmlTag.value());
+            this.expectTagName = StringUtil.isNotBlank(expectName) ? expectName : null;
+            this.tagName = StringUtil.defaultIfBlank(xmlTag.value(), type.getSimpleName());
+        }
+
+        List<Field> declared = Reflects.getFields(type);
+        this.fields = declared.stream()
+                .filter(field -> !Reflects.isStaticOrFinal(field))
+                .filter(field -> field.isAnnotationPresent(XmlField.class))
+                .map(FieldBinding::new)
+                .toArray(FieldBinding[]::new);
+    }
+
+    /**
+     * 使用无参构造器创建实体类对象
+     *
+     * @return Object 实体类对象
+     * @throws RuntimeException 没有可用的无参构造器, 或构造器抛出受检异常时
+     */
+    Object newInstance() {
+        if (null == constructor)
+            throw new RuntimeException(constructorError);
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 获取实体类映射计划
+     *
+     * @param type 实体类字节码
+     * @return XMLBindingPlan 映射计划
+     */
+    static XMLBindingPlan of(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    /**
+     * 字段分类
+     */
+    enum Kind {
+        /**
+         * 简单类型, 见 {@link Reflects#isSimpleType(Class)}
+         */
+        SIMPLE,
+        /**
+         * List/Set
+         */
+        COLLECTION,
+        /**
+         * 数组
+         */
+        ARRAY,
+        /**
+         * 被 {@link XmlTag @XmlTag} 注解的自定义类型
+         */
+        CUSTOM,
+        /**
+         * 不支持映射子标签的类型
+         */
+        NONE
+    }
+
+    /**
+     * 字段映射信息
+     */
+    static final class FieldBinding {
+
+        final Field field;
+
+        final XmlField xmlField;
+
+        /**
+         * true-属性映射, false-子标签映射
+         */
+        final boolean attribute;
+
+        /**
+         * 字段类型
+         */
+        final Class<?> type;
+
+        /**
+         * 映射名称: 属性名, 或导出时的属性名
+         */
+        final String name;
+
+        final CompiledPath path;
+
+        final Kind kind;
+
+        /**
+         * 子标签映射时读取的子标签名
+         */
+        final String childTagName;
+
+        /**
+         * List/Set的泛型类型, 或数组元素类型; 没有泛型时为null
+         */
+        final Class<?> elementType;
+
+        /**
+         * 元素类型是否被 {@link XmlTag @XmlTag} 注解
+         */
+        final boolean elementTagged;
+
+        /**
+         * 是否Set集合
+         */
+        final boolean set;
+
+        /**
+         * 导出时的子标签名, 字段类型没有 {@link XmlTag @XmlTag} 注解时为null
+         */
+        final String exportTagName;
+
+        private final MethodHandle setter;
+
+        private final MethodHandle getter;
+
+        /**
+         * 字段值解析器及其版本
+         */
+        private volatile ParserRef parserRef;
+
+        private FieldBinding(Field field) {
+            field.setAccessible(true);
+            this.field = field;
+            this.xmlField = field.getAnnotation(XmlField.class);
+            this.attribute = FieldType.ATTRIBUTE == xmlField.type();
+            this.type = field.getType();
+            this.name = StringUtil.defaultIfBlank(xmlField.name(), field.getName());
+            this.path = CompiledPath.of(field, xmlField);
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                this.setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+                this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+
+            XmlTag typeXmlTag = type.getAnnotation(XmlTag.class);
+            this.exportTagName = null == typeXmlTag ? null : StringUtil.defaultIfBlank(typeXmlTag.value(), type.getSimpleName());
+
+            Reflects.CollectionType collectionType = Reflects.isCollection(type);
+            if (Reflects.isSimpleType(type)) {
+                this.kind = Kind.SIMPLE;
+                this.elementType = null;
+                this.childTagName = StringUtil.defaultIfBlank(xmlField.name(), type.getSimpleName());
+            } else if (Reflects.CollectionType.ARRAY == collectionType) {
+                this.kind = Kind.ARRAY;
+                this.elementType = type.getComponentType();
+                this.childTagName = StringUtil.defaultString(xmlField.name(), elementType.getSimpleName());
+            } else if (null != collectionType) {
+                this.kind = Kind.COLLECTION;
+                Type genericType = field.getGenericType();
+                this.elementType = genericType instanceof ParameterizedType
+                        ? (Class<?>) ((ParameterizedType) genericType).getActualTypeArguments()[0]
+                        : null;
+                this.childTagName = null == elementType ? null : StringUtil.defaultIfBlank(xmlField.name(), elementType.getSimpleName());
+            } else if (null != typeXmlTag) {
+                this.kind = Kind.CUSTOM;
+                this.elementType = null;
+                this.childTagName = StringUtil.defaultIfBlank(xmlField.name(), type.getSimpleName());
+            } else {
+                this.kind = Kind.NONE;
+                this.elementType = null;
+                this.childTagName = null;
+            }
+            this.elementTagged = null != elementType && elementType.isAnnotationPresent(XmlTag.class);
+            this.set = Reflects.CollectionType.SET == collectionType;
+        }
+
+        /**
+         * 设置字段值
+         *
+         * @param bean  实体类对象
+         * @param value 字段值
+         * @throws IllegalArgumentException 基本类型字段的值为null时
+         */
+        void set(Object bean, Object value) {
+            if (null == value && type.isPrimitive())
+                throw new IllegalArgumentException("Can not set " + type.getName() + " field " + field + " to null value");
+            try {
+                setter.invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /**
+         * 读取字段值
+         *
+         * @param bean 实体类对象
+         * @return Object 字段值, 基本类型返回包装类型
+         */
+        Object get(Object bean) {
+            try {
+                return (Object) getter.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /**
+         * 获取字段值解析器, 解析器注册表变化后重新获取
+         *
+         * @return SimpleValueParser 字段值解析器
+         */
+        SimpleValueParser<?> parser() {
+            int version = FieldValueParserFactory.getVersion();
+            ParserRef ref = parserRef;
+            if (null == ref || ref.version != version) {
+                ref = new ParserRef(version, FieldValueParserFactory.getFactory(type));
+                parserRef = ref;
+            }
+            return ref.parser;
+        }
+    }
+
+    /**
+     * 解析器及获取时的注册表版本
+     */
+    private static final class ParserRef {
+
+        private final int version;
+
+        private final SimpleValueParser<?> parser;
+
+        private ParserRef(int version, SimpleValueParser<?> parser) {
+            this.version = version;
+            this.parser = parser;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.yong.util.file.xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 后代节点分割迭代器, 按文档顺序(先序)返回节点.<br>
+ * 栈中每个元素表示一棵尚未访问的子树, 栈顶在文档中最靠前; 分割时把栈顶一半的子树交给新的迭代器,
+ * 只剩一棵子树时先展开其子节点再分割, 因此并行流可以在子树之间分配任务.
+ * <p>
+ * 遍历期间不允许修改节点树
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ * @see XMLObject#descendants()
+ */
+final class XMLDescendantSpliterator implements Spliterator<XMLObject> {
+
+    /**
+     * 待访问子树根节点
+     */
+    private XMLObject[] nodes;
+
+    /**
+     * true-只返回节点本身, 子节点已经展开
+     */
+    private boolean[] expanded;
+
+    private int size;
+
+    /**
+     * 估算节点数量, 每次分割减半
+     */
+    private long estimate;
+
+    private XMLDescendantSpliterator(XMLObject[] nodes, boolean[] expanded, int size, long estimate) {
+        this.nodes = nodes;
+        this.expanded = expanded;
+        this.size = size;
+        this.estimate = estimate;
+    }
+
+    /**
+     * 创建后代节点迭代器, 不包括起点节点本身
+     *
+     * @param root 起点节点
+     * @return XMLDescendantSpliterator 迭代器
+     */
+    static XMLDescendantSpliterator of(XMLObject root) {
+        XMLDescendantSpliterator spliterator = new XMLDescendantSpliterator(new XMLObject[16], new boolean[16], 0, Long.MAX_VALUE);
+        spliterator.pushChildren(root);
+        return spliterator;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super XMLObject> action) {
+        if (0 == size)
+            return false;
+
+        XMLObject node = pop();
+        action.accept(node);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super XMLObject> action) {
+        while (0 < size)
+            action.accept(pop());
+    }
+
+    @Override
+    public Spliterator<XMLObject> trySplit() {
+        // 只剩一棵子树时展开, 子树根节点单独作为前缀
+        if (1 == size && !expanded[0]) {
+            XMLObject top = nodes[0];
+            if (top.getChildTags().isEmpty())
+                return null;
+
+            size = 0;
+            pushChildren(top);
+            push(top, true);
+        }
+        if (2 > size)
+            return null;
+
+        // 栈顶一半在文档中靠前, 作为前缀交给新的迭代器
+        int keep = size >>> 1;
+        int count = size - keep;
+        XMLObject[] prefixNodes = Arrays.copyOfRange(nodes, keep, size);
+        boolean[] prefixExpanded = Arrays.copyOfRange(expanded, keep, size);
+        Arrays.fill(nodes, keep, size, null);
+        size = keep;
+
+        estimate >>>= 1;
+        return new XMLDescendantSpliterator(prefixNodes, prefixExpanded, count, estimate);
+    }
+
+    @Override
+    public long estimateSize() {
+        return 0 == size ? 0 : estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * 弹出栈顶节点, 未展开时压入其子节点
+     */
+    private XMLObject pop() {
+        size--;
+        XMLObject node = nodes[size];
+        boolean done = expanded[size];
+        nodes[size] = null;
+        if (!done)
+            pushChildren(node);
+        return node;
+    }
+
+    /**
+     * 逆序压入所有子节点, 保证出栈顺序与文档顺序一致
+     */
+    private void pushChildren(XMLObject node) {
+        Map<String, List<XMLObject>> childTags = node.getChildTags();
+        int groupCount = childTags.size();
+        if (0 == groupCount)
+            return;
+        if (1 == groupCount) {
+            pushAll(childTags.values().iterator().next());
+            return;
+        }
+
+        List<List<XMLObject>> groups = new ArrayList<>(childTags.values());
+        for (int g = groupCount - 1; g >= 0; g--)
+            pushAll(groups.get(g));
+    }
+
+    private void pushAll(List<XMLObject> group) {
+        for (int i = group.size() - 1; i >= 0; i--)
+            push(group.get(i), false);
+    }
+
+    private void push(XMLObject node, boolean done) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, Math.max(16, size << 1));
+            expanded = Arrays.copyOf(expanded, nodes.length);
+        }
+        nodes[size] = node;
+        expanded[size] = done;
+        size++;
+    }
+}
@@ -2,22 +2,31 @@ package org.yong.util.file.xml;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.yong.util.common.StringUtil;
-import org.yong.util.file.xml.annotation.FieldType;
-import org.yong.util.file.xml.annotation.XmlField;
 import org.yong.util.file.xml.annotation.XmlTag;
+import org.yong.util.file.xml.engine.XMLNodeLoader;
 import org.yong.util.file.xml.parser.FieldValueParserFactory;
-import org.yong.util.file.xml.parser.iface.SimpleValueParser;
+import org.yong.util.file.xml.query.XMLQuery;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * XML文件对象
@@ -32,9 +41,14 @@ public class XMLObject implements Serializable {
     private static final long serialVersionUID = 7702755997734263716L;
 
     /**
-     * 属性列表
+     * 并行映射时每段最少的子标签数量
      */
-    private Map<String, String> attrs = new HashMap<>();
+    private static final int MIN_PARALLEL_CHUNK = 64;
+
+    /**
+     * 属性列表, 没有属性时为null, 第一次添加属性时创建
+     */
+    private Map<String, String> attrs;
 
     /**
      * 子标签集合, Key:tagName, Value:List&lt;XMLObject&gt;
@@ -61,6 +75,70 @@ public class XMLObject implements Serializable {
      */
     private String tagName;
 
+    /**
+     * 延迟加载器, 不为null时子标签和标签体尚未加载, 只在持有当前对象锁时访问
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient XMLNodeLoader loader;
+
+    /**
+     * 是否等待加载
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient volatile boolean lazy;
+
+    /**
+     * 是否已冻结, 冻结后当前节点及其后代节点只读
+     */
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile boolean frozen;
+
+    /**
+     * 冻结时计算的子树结构哈希值, 不包含父级节点
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int structuralHash;
+
+    /**
+     * 标签名索引, 只保存在顶层节点上
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient volatile XMLTagIndex tagIndex;
+
+    /**
+     * 所在节点树的标签名索引, 重建索引时写入每个节点; 节点结构或属性变化时直接标记该索引失效, 不需要查找顶层节点.
+     * 没有建立过索引的节点树为null
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.PACKAGE)
+    @ToString.Exclude
+    private transient volatile XMLTagIndex treeIndex;
+
+    /**
+     * 在标签名索引中的先序编号
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    @ToString.Exclude
+    private transient int indexOrder = -1;
+
+    /**
+     * 在标签名索引中最后一个后代节点的先序编号
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    @ToString.Exclude
+    private transient int indexEnd = -1;
+
     /**
      * 构建XML对象
      *
@@ -96,59 +174,30 @@ public class XMLObject implements Serializable {
         if (null == data)
             return null;
 
-        Class<?> type = data.getClass();
-        XmlTag xmlTag = type.getAnnotation(XmlTag.class);
-        if (null == xmlTag)
-            throw new UnsupportedOperationException("实体类[" + type.toString() + "]没有被标记为 @XmlTag");
+        XMLBindingPlan plan = XMLBindingPlan.of(data.getClass());
+        if (null == plan.xmlTag)
+            throw new UnsupportedOperationException("实体类[" + plan.type.toString() + "]没有被标记为 @XmlTag");
 
         // 一级属性
-        String tagName = StringUtil.defaultIfBlank(xmlTag.value(), type.getSimpleName());
-        XMLObject xmlObject = new XMLObject(tagName);
-        List<Field> fields = Reflects.getFields(type);
-        for (Field field : fields) {
-
-            // 不处理静态和常量
-            if (Reflects.isStaticOrFinal(field))
-                continue;
-
-            // 获取字段相关数据
-            // @XmlField注解
-            XmlField xmlField = field.getAnnotation(XmlField.class);
-            if (null == xmlField)
-                continue;
-
-            // 字段XML映射名称
-            Class<?> fieldType = field.getType();
-            String fieldName = StringUtil.defaultIfBlank(xmlField.name(), field.getName());
+        XMLObject xmlObject = new XMLObject(plan.tagName);
+        for (XMLBindingPlan.FieldBinding binding : plan.fields) {
 
             // 获取字段值
-            Object fieldValue;
-            try {
-                field.setAccessible(true);
-                fieldValue = field.get(data);
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException(e);
-            }
+            Object fieldValue = binding.get(data);
 
-            FieldType fieldXmlType = xmlField.type();
-            if (FieldType.ATTRIBUTE == fieldXmlType) {
-                SimpleValueParser<?> parser = FieldValueParserFactory.getFactory(fieldType);
-                String xmlValue = parser.fromBean(fieldValue);
-                xmlObject.attrs.put(fieldName, xmlValue);
+            if (binding.attribute) {
+                String xmlValue = binding.parser().fromBean(fieldValue);
+                xmlObject.addAttr(binding.name, xmlValue);
                 continue;
             }
 
-            if (FieldType.TAG == fieldXmlType) {
-                XmlTag fieldTypeXmlTag = fieldType.getAnnotation(XmlTag.class);
-                String childTagName = StringUtil.defaultIfBlank(fieldTypeXmlTag.value(), fieldType.getSimpleName());
-                List<XMLObject> children = xmlObject.childTags.computeIfAbsent(childTagName, k -> new ArrayList<>());
-
-                if (null != fieldValue) {
-                    XMLObject childTag = of(fieldValue);
-                    children.add(childTag);
-                }
+            if (null == binding.exportTagName)
+                throw new UnsupportedOperationException("实体类[" + binding.type.toString() + "]没有被标记为 @XmlTag");
+            List<XMLObject> children = xmlObject.childTags.computeIfAbsent(binding.exportTagName, k -> new ArrayList<>());
+            if (null != fieldValue) {
+                XMLObject childTag = of(fieldValue);
+                children.add(childTag);
             }
-
         }
 
         return xmlObject;
@@ -161,6 +210,8 @@ public class XMLObject implements Serializable {
      * @param attrValue 属性值
      */
     public void addAttr(String attrName, String attrValue) {
+        checkMutable();
+        invalidateAttrIndex();
         getAttrs().put(attrName, attrValue);
     }
 
@@ -170,6 +221,8 @@ public class XMLObject implements Serializable {
      * @param xmlObject 子标签对象
      */
     public void addChildTag(XMLObject xmlObject) {
+        checkMutable();
+        invalidateTagIndex();
         Map<String, List<XMLObject>> localSubTags = getChildTags();
 
         // 验证是否已存在当前标签
@@ -180,6 +233,157 @@ public class XMLObject implements Serializable {
         subTags.add(xmlObject);
     }
 
+    /**
+     * 为当前节点所在的节点树建立标签名索引, 索引保存在顶层节点上.<br>
+     * 建立后 {@link #getAllChildTags(String)} 直接从索引中获取结果, 耗时与结果数量相关;
+     * 通过当前类的方法修改节点树时索引自动失效并在下一次查询时重建,
+     * 直接修改 {@link #getChildTags()} 返回的集合时需要重新调用当前方法
+     *
+     * @return XMLObject 当前节点
+     */
+    public XMLObject buildTagIndex() {
+        XMLObject top = getTop();
+        XMLTagIndex index = new XMLTagIndex(top);
+        index.find(top, top.tagName);
+        top.tagIndex = index;
+        return this;
+    }
+
+    /**
+     * 按属性值查找当前节点及其后代节点中的指定标签, 按文档顺序排列.<br>
+     * 第一次调用时为节点树建立标签名索引(见 {@link #buildTagIndex()}), 并为(标签名, 属性名)建立属性值哈希索引,
+     * 之后相同标签名和属性名的查询直接从索引中获取; 通过 {@link #addAttr(String, String)}/{@link #setAttrs(Map)}
+     * 修改属性时属性值索引自动失效, 直接修改 {@link #getAttrs()} 返回的集合时需要重新调用 {@link #buildTagIndex()}
+     *
+     * <pre>
+     * XMLObject station = root.findBy("TourStation", "stationName", "A01").get(0);
+     * </pre>
+     *
+     * @param tagName   标签名
+     * @param attrName  属性名
+     * @param attrValue 属性值
+     * @return List&lt;XMLObject&gt; 匹配的节点, 总是返回合法的列表对象
+     */
+    public List<XMLObject> findBy(String tagName, String attrName, String attrValue) {
+        if (null == tagName || null == attrName)
+            throw new IllegalArgumentException("标签名和属性名不能为null");
+        if (null == attrValue)
+            return Lists.newArrayList();
+
+        XMLObject top = getTop();
+        XMLTagIndex index = top.tagIndex;
+        if (null == index) {
+            buildTagIndex();
+            index = top.tagIndex;
+        }
+
+        List<XMLObject> result = index.findBy(this, tagName, attrName, attrValue);
+        if (null != result)
+            return result;
+
+        // 当前节点不在索引中(节点树被直接修改)时逐个比较
+        result = Lists.newArrayList();
+        for (XMLObject node : getAllChildTags(tagName)) {
+            if (node.hasAttr(attrName) && attrValue.equals(node.getAttrs().get(attrName)))
+                result.add(node);
+        }
+        return result;
+    }
+
+    /**
+     * 按预编译路径查找后代节点, 不会为不存在的子标签创建空列表
+     *
+     * @param path 预编译路径
+     * @return XMLObject 目标节点, 任意一级子标签不存在时返回null
+     * @see CompiledPath#compile(String...)
+     */
+    public XMLObject select(CompiledPath path) {
+        return path.select(this);
+    }
+
+    /**
+     * 以当前节点为起点按文档顺序遍历节点树, 使用显式栈实现, 嵌套层次不受线程栈大小限制
+     *
+     * @param visitor 访问器, 可以跳过子树或终止遍历
+     * @return XMLVisitResult 被终止时返回 {@link XMLVisitResult#TERMINATE}, 否则返回 {@link XMLVisitResult#CONTINUE}
+     */
+    public XMLVisitResult walk(XMLVisitor visitor) {
+        return XMLTreeWalker.walk(this, visitor);
+    }
+
+    /**
+     * 按文档顺序查找第一个匹配的节点(包括当前节点), 找到后立即停止遍历
+     *
+     * @param predicate 匹配条件
+     * @return XMLObject 第一个匹配的节点, 没有时返回null
+     */
+    public XMLObject findFirst(Predicate<XMLObject> predicate) {
+        XMLObject[] found = new XMLObject[1];
+        walk((node, depth) -> {
+            if (!predicate.test(node))
+                return XMLVisitResult.CONTINUE;
+            found[0] = node;
+            return XMLVisitResult.TERMINATE;
+        });
+        return found[0];
+    }
+
+    /**
+     * 获取所有后代节点(不包括当前节点)的流, 按文档顺序排列.<br>
+     * 流基于可分割的迭代器, 在子树之间分割, 使用 {@link Stream#parallel()} 时可以在多个线程上并行处理;
+     * 流在终止操作时才开始遍历, 遍历期间不允许修改节点树
+     *
+     * @return Stream&lt;XMLObject&gt; 后代节点流
+     */
+    public Stream<XMLObject> descendants() {
+        return StreamSupport.stream(XMLDescendantSpliterator.of(this), false);
+    }
+
+    /**
+     * 获取指定标签名的所有后代节点(不包括当前节点)的流, 按文档顺序排列;
+     * 节点树已建立标签名索引时直接从索引中获取
+     *
+     * @param tagName 标签名
+     * @return Stream&lt;XMLObject&gt; 后代节点流
+     * @see #descendants()
+     */
+    public Stream<XMLObject> descendants(String tagName) {
+        XMLObject top = getTop();
+        if (null != top.tagIndex) {
+            List<XMLObject> indexed = top.tagIndex.find(this, tagName);
+            if (null != indexed) {
+                int from = !indexed.isEmpty() && this == indexed.get(0) ? 1 : 0;
+                return indexed.subList(from, indexed.size()).stream();
+            }
+        }
+        return descendants().filter(node -> StringUtil.equalsTwo(node.getTagName(), tagName));
+    }
+
+    /**
+     * 执行XPath子集查询, 表达式编译结果会被缓存
+     *
+     * <pre>
+     * List&lt;XMLObject&gt; stations = root.query("//TourStation[@stationName='A01']");
+     * </pre>
+     *
+     * @param expression 查询表达式, 语法见 {@link XMLQuery}
+     * @return List&lt;XMLObject&gt; 匹配节点
+     */
+    public List<XMLObject> query(String expression) {
+        return XMLQuery.compile(expression).select(this);
+    }
+
+    /**
+     * 创建批量编辑器, 在当前节点树中执行多个插入/移动/删除操作,
+     * 每个受影响的同名子标签列表只重建一次; 大量调整节点顺序时代替单个节点的插入/追加方法
+     *
+     * @return XMLBatchEditor 批量编辑器
+     */
+    public XMLBatchEditor edit() {
+        checkMutable();
+        return new XMLBatchEditor(this);
+    }
+
     /**
      * 追加到指定标签节点之后(外部)
      *
@@ -203,6 +407,7 @@ public class XMLObject implements Serializable {
 
         // 获取marker父节点
         XMLObject markerParent = markerNode.getParent();
+        markerParent.invalidateTagIndex();
 
         // 获取marker的同级节点列表, 找到marker在列表中的位置
         List<XMLObject> markerLevelChildren = markerParent.getChildTags(markerNode.getTagName());
@@ -245,6 +450,7 @@ public class XMLObject implements Serializable {
 
         // 获取标记节点父节点
         XMLObject markerNodeParent = markerNode.getParent();
+        markerNodeParent.invalidateTagIndex();
 
         // 获取父节点中标记节点子节点集合
         List<XMLObject> markerLevelChildren = markerNodeParent.getChildTags(markerNode.getTagName());
@@ -264,33 +470,97 @@ public class XMLObject implements Serializable {
         return true;
     }
 
+    /**
+     * 冻结当前节点及其所有后代节点, 冻结后不允许修改, 可在多线程间直接共享.<br>
+     * 冻结时加载所有延迟节点并预先计算子树结构哈希值, 冻结节点之间比较时哈希值不同直接返回false.
+     * 冻结节点只和冻结节点比较结构(不包含父级节点), 与未冻结节点总是不相等
+     *
+     * @return XMLObject 当前节点
+     */
+    public XMLObject freeze() {
+        if (frozen)
+            return this;
+
+        // 先序收集未冻结节点, 逆序冻结保证子节点先于父节点计算哈希值
+        List<XMLObject> nodes = Lists.newArrayList();
+        Deque<XMLObject> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            XMLObject node = stack.pop();
+            if (node.frozen)
+                continue;
+
+            nodes.add(node);
+            for (List<XMLObject> children : node.getChildTags().values()) {
+                for (XMLObject child : children)
+                    stack.push(child);
+            }
+        }
+
+        for (int i = nodes.size() - 1; i >= 0; i--)
+            nodes.get(i).freezeNode();
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof XMLObject)) return false;
         XMLObject xmlObject = (XMLObject) o;
+        if (frozen || xmlObject.frozen) {
+            return frozen == xmlObject.frozen &&
+                    structuralHash == xmlObject.structuralHash &&
+                    rootElement == xmlObject.rootElement &&
+                    Objects.equals(tagName, xmlObject.tagName) &&
+                    Objects.equals(content, xmlObject.content) &&
+                    attrs.equals(xmlObject.attrs) &&
+                    childTags.equals(xmlObject.childTags);
+        }
         return rootElement == xmlObject.rootElement &&
-                Objects.equals(attrs, xmlObject.attrs) &&
-                Objects.equals(childTags, xmlObject.childTags) &&
-                Objects.equals(content, xmlObject.content) &&
+                attrsOrEmpty().equals(xmlObject.attrsOrEmpty()) &&
+                Objects.equals(getChildTags(), xmlObject.getChildTags()) &&
+                Objects.equals(getContent(), xmlObject.getContent()) &&
                 Objects.equals(parent, xmlObject.parent) &&
                 tagName.equals(xmlObject.tagName);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(attrs, childTags, content, rootElement, parent, tagName);
+        if (frozen)
+            return structuralHash;
+        return Objects.hash(attrsOrEmpty(), getChildTags(), getContent(), rootElement, parent, tagName);
     }
 
     /**
-     * 获取当前节点下所有的子节点, 包括当前元素和后代元素
+     * 获取属性表, 没有属性表时返回空表, 不会创建属性表
+     *
+     * @return Map&lt;String,String&gt; 属性表
+     */
+    private Map<String, String> attrsOrEmpty() {
+        return null == attrs ? Collections.emptyMap() : attrs;
+    }
+
+    /**
+     * 获取当前节点下所有的子节点, 包括当前元素和后代元素, 按文档顺序排列;
+     * 节点树已建立标签名索引时直接从索引中获取
      *
      * @param childTagName 子节点标签名
      * @return List&lt;XMLObject&gt; 指定标签列表
      */
     public List<XMLObject> getAllChildTags(String childTagName) {
+        XMLObject top = getTop();
+        if (null != top.tagIndex) {
+            List<XMLObject> indexed = top.tagIndex.find(this, childTagName);
+            if (null != indexed)
+                return indexed;
+        }
+
         List<XMLObject> result = Lists.newArrayList();
-        getAllChild(this, childTagName, result);
+        walk((node, depth) -> {
+            if (StringUtil.equalsTwo(node.getTagName(), childTagName))
+                result.add(node);
+            return XMLVisitResult.CONTINUE;
+        });
         return result;
     }
 
@@ -301,7 +571,7 @@ public class XMLObject implements Serializable {
      * @return String 属性值
      */
     public String getAttr(String attrName) {
-        String attrVal = getAttrs().get(attrName);
+        String attrVal = null == attrs ? null : attrs.get(attrName);
         return StringUtil.isNotEmpty(attrVal, true) ? attrVal : StringUtil.EMPTY;
     }
 
@@ -312,11 +582,20 @@ public class XMLObject implements Serializable {
      */
     public Map<String, String> getAttrs() {
         if (null == this.attrs) {
-            this.attrs = new HashMap<>();
+            this.attrs = new XMLAttributes();
         }
         return this.attrs;
     }
 
+    /**
+     * 是否包含属性, 不会为没有属性的节点创建属性表
+     *
+     * @return boolean true-至少包含一个属性, false-没有属性
+     */
+    public boolean hasAttrs() {
+        return null != attrs && !attrs.isEmpty();
+    }
+
     /**
      * 获取指定子标签
      *
@@ -339,12 +618,46 @@ public class XMLObject implements Serializable {
      * Value:当前标签下所有与标签名关联的一级子标签
      */
     public Map<String, List<XMLObject>> getChildTags() {
+        load();
         if (null == this.childTags) {
             this.childTags = Maps.newHashMap();
         }
         return this.childTags;
     }
 
+    /**
+     * 设置所有子标签, 未加载的延迟节点先加载再替换
+     *
+     * @param childTags 子标签集合
+     */
+    public void setChildTags(Map<String, List<XMLObject>> childTags) {
+        checkMutable();
+        invalidateTagIndex();
+        load();
+        this.childTags = childTags;
+    }
+
+    /**
+     * 获取标签文本内容
+     *
+     * @return String 标签体
+     */
+    public String getContent() {
+        load();
+        return content;
+    }
+
+    /**
+     * 设置标签文本内容, 未加载的延迟节点先加载再替换
+     *
+     * @param content 标签体
+     */
+    public void setContent(String content) {
+        checkMutable();
+        load();
+        this.content = content;
+    }
+
     /**
      * 获取子标签
      *
@@ -352,6 +665,8 @@ public class XMLObject implements Serializable {
      * @return List&lt;XMLObject&gt; 当前标签包含的所有子标签, 总是返回合法的列表对象
      */
     public List<XMLObject> getChildTags(String tagName) {
+        if (frozen)
+            return childTags.getOrDefault(tagName, Collections.emptyList());
         return getChildTags().computeIfAbsent(tagName, k -> Lists.newArrayList());
     }
 
@@ -362,7 +677,7 @@ public class XMLObject implements Serializable {
      * @return boolean true-包含指定属性, false-不包含指定属性
      */
     public boolean hasAttr(String attrName) {
-        return (this.getAttrs().containsKey(attrName));
+        return null != attrs && attrs.containsKey(attrName);
     }
 
     /**
@@ -394,6 +709,7 @@ public class XMLObject implements Serializable {
 
         // 从原有的父节点中移出当前节点
         this.setFloating();
+        parentNode.invalidateTagIndex();
 
         // 获取当前节点在目标父节点的同级元素
         List<XMLObject> currLevelChildren = parentNode.getChildTags(this.getTagName());
@@ -419,6 +735,8 @@ public class XMLObject implements Serializable {
             return false;
         }
 
+        parentNode.invalidateTagIndex();
+
         // 获取目标父节点的子节点集合,
         // 子节点集合与当前节点名相关
         List<XMLObject> parentChildren = parentNode.getChildTags(this.getTagName());
@@ -448,20 +766,13 @@ public class XMLObject implements Serializable {
      * @see FieldValueParserFactory 字段实例解析器工厂
      */
     public <T> T toBean(Class<T> cls) {
-        validExpectTagName(cls);
+        XMLBindingPlan plan = XMLBindingPlan.of(cls);
+        validExpectTagName(plan);
 
-        T bean;
-        try {
-            bean = cls.newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-
-        // 获取字段列表
-        List<Field> fields = Reflects.getFields(cls);
-        for (Field field : fields)
-            if (!Reflects.isStaticOrFinal(field))
-                setValue(bean, field);
+        @SuppressWarnings("unchecked")
+        T bean = (T) plan.newInstance();
+        for (XMLBindingPlan.FieldBinding binding : plan.fields)
+            setValue(bean, binding);
 
         return bean;
     }
@@ -488,57 +799,248 @@ public class XMLObject implements Serializable {
     }
 
     /**
-     * 校验当前节点是否漂浮状态(只能代表当前节点, 而不能代表其上级节点是否也是漂浮状态)
+     * 使用公共 {@link ForkJoinPool} 并行映射子标签列表, 结果按文档顺序排列
      *
-     * @return boolean true-漂浮状态, false-不是漂浮状态
+     * @param childTagName 子标签名
+     * @param cls          实体类字节码
+     * @param <T>          实体类类型
+     * @return 实体类列表
+     * @see #toBeansParallel(String, Class, Executor)
      */
-    private boolean isFloating() {
-        // 不是根节点, 并且没有相应的父节点时
-        return !this.isRootElement() && null == this.getParent();
+    public <T> List<T> toBeansParallel(String childTagName, Class<T> cls) {
+        return toBeansParallel(childTagName, cls, ForkJoinPool.commonPool());
     }
 
     /**
-     * 追加到result中
+     * 并行映射子标签列表, 结果按文档顺序排列.<br>
+     * 子标签按顺序分为若干段, 当前线程处理第一段, 其余各段提交到指定线程池;
+     * 子标签较少时直接在当前线程中映射. 映射期间不允许修改节点树
      *
-     * @param xmlObject    xml节点元素
-     * @param childTagName 目标节点名称
-     * @param result       用于保存节点列表
+     * @param childTagName 子标签名
+     * @param cls          实体类字节码
+     * @param executor     执行映射任务的线程池
+     * @param <T>          实体类类型
+     * @return 实体类列表
+     * @see #toBeans(String, Class)
      */
-    private void appendTag(XMLObject xmlObject, String childTagName, List<XMLObject> result) {
-        if (StringUtil.equalsTwo(xmlObject.getTagName(), childTagName)) {
-            result.add(xmlObject);
+    public <T> List<T> toBeansParallel(String childTagName, Class<T> cls, Executor executor) {
+        List<XMLObject> children = getAllChildTags(childTagName);
+        int size = children.size();
+        int parallelism = executor instanceof ForkJoinPool
+                ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        int chunks = Math.min(parallelism << 2, size / MIN_PARALLEL_CHUNK);
+        if (2 > chunks) {
+            List<T> beans = Lists.newArrayListWithCapacity(size);
+            for (XMLObject xmlObject : children)
+                beans.add(xmlObject.toBean(cls));
+            return beans;
+        }
+
+        // 每段写入各自的下标范围, 不需要合并
+        Object[] beans = new Object[size];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks - 1];
+        for (int i = 1; i < chunks; i++) {
+            int from = (int) ((long) size * i / chunks);
+            int to = (int) ((long) size * (i + 1) / chunks);
+            futures[i - 1] = CompletableFuture.runAsync(() -> bindRange(children, cls, beans, from, to), executor);
+        }
+        bindRange(children, cls, beans, 0, (int) ((long) size / chunks));
+
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new RuntimeException(cause);
         }
+
+        @SuppressWarnings("unchecked")
+        List<T> result = (List<T>) Arrays.asList(beans);
+        return Lists.newArrayList(result);
+    }
+
+    /**
+     * 映射子标签列表中的一段
+     */
+    private static <T> void bindRange(List<XMLObject> children, Class<T> cls, Object[] beans, int from, int to) {
+        for (int i = from; i < to; i++)
+            beans[i] = children.get(i).toBean(cls);
     }
 
     /**
-     * 获取所有子节点
+     * 设置标签属性列表
      *
-     * @param xmlObject    节点对象
-     * @param childTagName 目标节点名称
-     * @param result       用于保存节点列表
+     * @param attrs 标签属性集合
      */
-    private void getAllChild(XMLObject xmlObject, String childTagName, List<XMLObject> result) {
-        appendTag(xmlObject, childTagName, result);
+    public void setAttrs(Map<String, String> attrs) {
+        checkMutable();
+        invalidateAttrIndex();
+        this.attrs = attrs;
+    }
 
-        // 验证是否还有后代元素
-        Map<String, List<XMLObject>> children = xmlObject.getChildTags();
-        if (0 >= children.size()) {
-            return;
+    /**
+     * 设置是否根节点
+     *
+     * @param rootElement true-根节点, false-非根节点
+     */
+    public void setRootElement(boolean rootElement) {
+        checkMutable();
+        this.rootElement = rootElement;
+    }
+
+    /**
+     * 设置父级节点
+     *
+     * @param parent 父级节点
+     */
+    public void setParent(XMLObject parent) {
+        checkMutable();
+        invalidateTagIndex();
+        this.parent = parent;
+        if (null != parent)
+            parent.invalidateTagIndex();
+    }
+
+    /**
+     * 设置标签名
+     *
+     * @param tagName 标签名
+     */
+    public void setTagName(String tagName) {
+        checkMutable();
+        invalidateTagIndex();
+        this.tagName = tagName;
+    }
+
+    /**
+     * 设置延迟加载器
+     *
+     * @param loader 子标签加载器
+     */
+    void setLoader(XMLNodeLoader loader) {
+        checkMutable();
+        synchronized (this) {
+            this.loader = loader;
+            this.lazy = null != loader;
         }
+    }
 
-        // 遍历所有后代标签
-        for (Entry<String, List<XMLObject>> child : children.entrySet()) {
-            List<XMLObject> descendants = child.getValue();
+    /**
+     * 加载延迟节点的子标签和标签体; 加载过程中当前线程再次访问时直接返回
+     */
+    private void load() {
+        if (!lazy)
+            return;
 
-            if (0 >= descendants.size()) {
-                appendTag(xmlObject, childTagName, result);
-                continue;
-            }
+        synchronized (this) {
+            XMLNodeLoader currLoader = this.loader;
+            if (null == currLoader)
+                return;
 
-            for (XMLObject descendant : descendants) {
-                getAllChild(descendant, childTagName, result);
+            this.loader = null;
+            try {
+                currLoader.load(this);
+            } catch (RuntimeException e) {
+                // 恢复为未加载状态, 下次访问重新加载
+                this.childTags = new LinkedHashMap<>();
+                this.content = null;
+                this.loader = currLoader;
+                throw e;
             }
+            this.lazy = false;
+        }
+    }
+
+    /**
+     * 冻结当前节点: 替换为只读集合并计算结构哈希值, 子节点必须已冻结
+     */
+    private void freezeNode() {
+        load();
+
+        int hash = Objects.hashCode(tagName);
+        hash = 31 * hash + Objects.hashCode(content);
+        hash = 31 * hash + Boolean.hashCode(rootElement);
+
+        Map<String, String> frozenAttrs = hasAttrs()
+                ? Collections.unmodifiableMap(new XMLAttributes(attrs))
+                : Collections.emptyMap();
+        hash = 31 * hash + frozenAttrs.hashCode();
+
+        Map<String, List<XMLObject>> frozenChildTags = new LinkedHashMap<>();
+        for (Entry<String, List<XMLObject>> entry : getChildTags().entrySet()) {
+            List<XMLObject> children = entry.getValue();
+            hash = 31 * hash + Objects.hashCode(entry.getKey());
+            for (XMLObject child : children)
+                hash = 31 * hash + child.structuralHash;
+            frozenChildTags.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(children)));
         }
+
+        this.attrs = frozenAttrs;
+        this.childTags = Collections.unmodifiableMap(frozenChildTags);
+        this.structuralHash = hash;
+        this.frozen = true;
+    }
+
+    /**
+     * 获取顶层节点
+     *
+     * @return XMLObject 没有父节点的祖先节点, 当前节点没有父节点时返回当前节点
+     */
+    private XMLObject getTop() {
+        XMLObject top = this;
+        while (null != top.parent)
+            top = top.parent;
+        return top;
+    }
+
+    /**
+     * 节点树结构变化时标记标签名索引失效
+     */
+    private void invalidateTagIndex() {
+        XMLTagIndex index = treeIndex;
+        if (null != index)
+            index.invalidate();
+    }
+
+    /**
+     * 属性变化时标记属性值索引失效
+     */
+    private void invalidateAttrIndex() {
+        XMLTagIndex index = treeIndex;
+        if (null != index)
+            index.invalidateAttributes();
+    }
+
+    /**
+     * 校验当前节点是否允许修改
+     */
+    private void checkMutable() {
+        if (frozen)
+            throw new UnsupportedOperationException("节点[" + tagName + "]已冻结, 不允许修改");
+    }
+
+    /**
+     * 序列化前加载延迟节点
+     *
+     * @param out 输出流
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        load();
+        out.defaultWriteObject();
+    }
+
+    /**
+     * 校验当前节点是否漂浮状态(只能代表当前节点, 而不能代表其上级节点是否也是漂浮状态)
+     *
+     * @return boolean true-漂浮状态, false-不是漂浮状态
+     */
+    private boolean isFloating() {
+        // 不是根节点, 并且没有相应的父节点时
+        return !this.isRootElement() && null == this.getParent();
     }
 
     /**
@@ -550,6 +1052,7 @@ public class XMLObject implements Serializable {
 
         XMLObject currParent = getParent();
         if (null != currParent) {
+            invalidateTagIndex();
             Map<String, List<XMLObject>> parentChildren = currParent.getChildTags();
 
             // 从父节点的子节点集合中删除当前节点
@@ -571,6 +1074,9 @@ public class XMLObject implements Serializable {
      * @return true-验证通过, false-验证失败
      */
     private boolean validationInnerEdit(XMLObject targetParent) {
+        checkMutable();
+        targetParent.checkMutable();
+
         if (StringUtil.isBlank(tagName)) {
             log.debug("当前节点未指定有效标签名称");
             return false;
@@ -601,6 +1107,10 @@ public class XMLObject implements Serializable {
      * @return boolean true-验证通过, false-验证失败
      */
     private boolean validationOuterEdit(XMLObject markerNode) {
+        checkMutable();
+        if (null != markerNode.parent)
+            markerNode.parent.checkMutable();
+
         if (equals(markerNode)) {
             log.debug("目标节点不能是当前节点");
             return false;
@@ -629,35 +1139,23 @@ public class XMLObject implements Serializable {
     /**
      * 设置值
      *
-     * @param bean  数据对象
-     * @param field 字段
+     * @param bean    数据对象
+     * @param binding 字段映射信息
      */
-    private void setValue(Object bean, Field field) {
-
-        // 不处理没有添加字段注解的属性
-        XmlField xmlField = field.getAnnotation(XmlField.class);
-        if (null == xmlField)
-            return;
-
-        String name = getTargetTagName(xmlField, field.getName());
-        FieldType type = xmlField.type();
+    private void setValue(Object bean, XMLBindingPlan.FieldBinding binding) {
         try {
-            switch (type) {
-
-                // 属性直接映射
-                case ATTRIBUTE:
-                    XMLObject target = parseFieldPath(xmlField);
-                    if (null != target) {
-                        String value = target.getAttr(name);
-                        setFieldValue(bean, field, value);
-                    }
-                    break;
-
-                // 子标签
-                case TAG:
-                    setValueByTag(bean, field, xmlField);
-                    break;
+            // 属性直接映射
+            if (binding.attribute) {
+                XMLObject target = binding.path.select(this);
+                if (null != target) {
+                    String value = target.getAttr(binding.name);
+                    setFieldValue(bean, binding, value);
+                }
+                return;
             }
+
+            // 子标签
+            setValueByTag(bean, binding);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -666,50 +1164,44 @@ public class XMLObject implements Serializable {
     /**
      * 从子标签填充复杂属性值
      *
-     * @param bean     目标对象
-     * @param field    字段对象
-     * @param xmlField XML字段映射注解
+     * @param bean    目标对象
+     * @param binding 字段映射信息
      */
-    private void setValueByTag(Object bean, Field field, XmlField xmlField) throws Exception {
-        field.setAccessible(true);
-
+    private void setValueByTag(Object bean, XMLBindingPlan.FieldBinding binding) {
         // 支持 path + hierarchy 寻路
-        XMLObject target = parseFieldPath(xmlField);
+        XMLObject target = binding.path.select(this);
         if (null != target) {
-            boolean isFired = trySimpleValueByTag(bean, field, target);
-            isFired = isFired || tryCollectionOrArray(bean, field);
-            isFired = isFired || tryCustomType(bean, field);
+            boolean isFired = trySimpleValueByTag(bean, binding, target);
+            isFired = isFired || tryCollectionOrArray(bean, binding);
+            isFired = isFired || tryCustomType(bean, binding);
 
-            log.debug("path&hierarchy处理结果: " + isFired);
+            log.debug("path&hierarchy处理结果: {}", isFired);
         }
     }
 
     /**
      * 尝试自定义类型
      *
-     * @param bean  数据对象
-     * @param field 字段对象
+     * @param bean    数据对象
+     * @param binding 字段映射信息
      * @return 成功处理返回true, 否则返回false(需要其他方式处理)
      */
-    private boolean tryCustomType(Object bean, Field field) throws IllegalAccessException {
-
-        XmlField xmlField = field.getAnnotation(XmlField.class);
-        Class<?> fieldType = field.getType();
+    private boolean tryCustomType(Object bean, XMLBindingPlan.FieldBinding binding) {
         // 自定义类型
-        if (!fieldType.isAnnotationPresent(XmlTag.class))
+        if (XMLBindingPlan.Kind.CUSTOM != binding.kind)
             return false;
 
         // 复合属性只能解析唯一的子标签
         // 如果标签出现多个证明实体类属性类型定义错误
-        String childTagName = getTargetTagName(xmlField, fieldType.getSimpleName());
-        List<XMLObject> children = getChildTags(childTagName);
+        String childTagName = binding.childTagName;
+        List<XMLObject> children = findChildTags(childTagName);
         if (1 < children.size())
             throw new RuntimeException("期望唯一子标签[" + childTagName + "]实际找到[" + children.size() + "]条");
 
         if (1 == children.size()) {
             XMLObject firstChildTag = children.get(0);
-            Object val = firstChildTag.toBean(fieldType);
-            field.set(bean, val);
+            Object val = firstChildTag.toBean(binding.type);
+            binding.set(bean, val);
         }
 
         return true;
@@ -718,166 +1210,104 @@ public class XMLObject implements Serializable {
     /**
      * 尝试设置列表或者数组
      *
-     * @param bean  数据对象
-     * @param field 字段对象
+     * @param bean    数据对象
+     * @param binding 字段映射信息
      * @return 成功处理返回true, 否则返回false(需要其他方式处理)
      */
-    private boolean tryCollectionOrArray(Object bean, Field field) throws IllegalAccessException {
-        XmlField xmlField = field.getAnnotation(XmlField.class);
-        Class<?> fieldType = field.getType();
-
-        // 列表&数组
-        Reflects.CollectionType collectionType = Reflects.isCollection(fieldType);
-        if (null == collectionType)
-            return false;
-
+    private boolean tryCollectionOrArray(Object bean, XMLBindingPlan.FieldBinding binding) {
         // List & Set
-        if (Reflects.CollectionType.LIST == collectionType || Reflects.CollectionType.SET == collectionType) {
+        if (XMLBindingPlan.Kind.COLLECTION == binding.kind) {
 
             // 获取泛型类型
             // 如果没有泛型不设置当前值
-            Type genericType = field.getGenericType();
-            if (genericType instanceof ParameterizedType) {
+            Class<?> type = binding.elementType;
+            if (null != type) {
 
                 // 泛型类型必须被 XmlTag 注解, 否则不予解析
-                ParameterizedType pt = (ParameterizedType) genericType;
-                Class<?> type = (Class<?>) pt.getActualTypeArguments()[0];
-                if (!type.isAnnotationPresent(XmlTag.class)) {
+                if (!binding.elementTagged) {
                     log.warn("请检查泛型类型[" + type.getName() + "]是否添加 @XmlTag 注解");
                     return true;
                 }
 
-                String childTagName = getTargetTagName(xmlField, type.getSimpleName());
-                List<?> val = toBeans(childTagName, type);
+                List<?> val = toBeans(binding.childTagName, type);
 
                 // 如果目标集合是Set集合, 从List集合转
-                if (Reflects.CollectionType.SET == collectionType)
-                    field.set(bean, new LinkedHashSet<>(val));
+                if (binding.set)
+                    binding.set(bean, new LinkedHashSet<>(val));
                 else
-                    field.set(bean, val);
+                    binding.set(bean, val);
             }
             return true;
         }
 
         // Array
-        if (Reflects.CollectionType.ARRAY == collectionType) {
-            Class<?> type = fieldType.getComponentType();
-            String childTagName = StringUtil.defaultString(xmlField.name(), type.getSimpleName());
-            List<?> val = toBeans(childTagName, type);
-            field.set(bean, val.toArray());
+        if (XMLBindingPlan.Kind.ARRAY == binding.kind) {
+            List<?> val = toBeans(binding.childTagName, binding.elementType);
+            binding.set(bean, val.toArray());
+            return true;
         }
-        return true;
-    }
-
-    /**
-     * 获取属性映射的目标标签或属性名称
-     *
-     * @param xmlField    映射注解
-     * @param defaultName 默认名称
-     * @return 映射名称
-     */
-    private static String getTargetTagName(XmlField xmlField, String defaultName) {
-        return StringUtil.defaultIfBlank(xmlField.name(), defaultName);
+        return false;
     }
 
     /**
      * 使用子标签设置简单值
      *
-     * @param bean   数据对象
-     * @param field  字段对象
-     * @param target 目标标签
+     * @param bean    数据对象
+     * @param binding 字段映射信息
+     * @param target  目标标签
      * @return 成功处理返回true, 否则返回false(需要其他方式处理)
      */
-    private boolean trySimpleValueByTag(Object bean, Field field, XMLObject target) throws Exception {
-        Class<?> fieldType = field.getType();
-        XmlField xmlField = field.getAnnotation(XmlField.class);
-
+    private boolean trySimpleValueByTag(Object bean, XMLBindingPlan.FieldBinding binding, XMLObject target) {
         // 只处理简单对象
-        if (!Reflects.isSimpleType(fieldType))
+        if (XMLBindingPlan.Kind.SIMPLE != binding.kind)
             return false;
 
         // 子节点个数检查
-        String childTagName = getTargetTagName(xmlField, fieldType.getSimpleName());
-        List<XMLObject> children = target.getChildTags(childTagName);
+        String childTagName = binding.childTagName;
+        List<XMLObject> children = target.findChildTags(childTagName);
 
         if (1 < children.size())
             throw new RuntimeException("期望唯一子标签[" + childTagName + "]实际找到[" + children.size() + "]条");
 
         if (1 == children.size()) {
             XMLObject firstChildTag = children.get(0);
-            setFieldValue(bean, field, firstChildTag.content);
+            setFieldValue(bean, binding, firstChildTag.getContent());
         }
         return true;
     }
 
     /**
-     * 解析字段路径配置
+     * 获取指定名称的子标签列表, 不存在时返回空列表且不修改当前节点; 映射实体时使用, 以便多个线程同时映射
      *
-     * @param xmlField 字段配置
-     * @return 目标XML节点
+     * @param tagName 子标签名
+     * @return List&lt;XMLObject&gt; 子标签列表
      */
-    private XMLObject parseFieldPath(XmlField xmlField) {
-        String[] path = xmlField.path();
-        XMLObject target = this;
-
-        List<String> rightPaths = new ArrayList<>();
-        for (String node : path) {
-            int tagIndex = 0;
-            String[] split = node.split("\\[");
-            if (2 < split.length) {
-                log.info("成功解析路径: " + rightPaths);
-                throw new RuntimeException("无效的子标签索引规则: " + node + ", 最多支持一维数组索引.");
-            }
-
-            if (2 == split.length) {
-                node = split[0];
-                String indexStr = split[1].substring(0, split[1].length() - 2);
-                try {
-                    tagIndex = Integer.parseInt(indexStr);
-                } catch (NumberFormatException e) {
-                    log.info("成功解析路径: " + rightPaths);
-                    throw new RuntimeException("索引下标[" + indexStr + "]解析失败不能转化为数字", e);
-                }
-            }
-
-            rightPaths.add(node);
-            target = target.getChildTag(node, tagIndex);
-        }
-        return target;
+    private List<XMLObject> findChildTags(String tagName) {
+        List<XMLObject> children = getChildTags().get(tagName);
+        return null == children ? Collections.emptyList() : children;
     }
 
     /**
      * 校验期望标签名, 校验失败抛出异常
      *
-     * @param cls 实体类字节码
-     * @param <T> 实体类泛型
+     * @param plan 实体类映射计划
      */
-    private <T> void validExpectTagName(Class<T> cls) {
-        XmlTag xmlTag = cls.getAnnotation(XmlTag.class);
-        if (null != xmlTag) {
-            String expectName = xmlTag.value();
-            expectName = StringUtil.trimToEmpty(expectName);
-            if (StringUtil.isNotBlank(expectName) && !expectName.equals(tagName)) {
-                throw new RuntimeException("期望标签名[" + expectName + "]与实际标签名[" + tagName + "]不一致");
-            }
-        }
+    private void validExpectTagName(XMLBindingPlan plan) {
+        String expectName = plan.expectTagName;
+        if (null != expectName && !expectName.equals(tagName))
+            throw new RuntimeException("期望标签名[" + expectName + "]与实际标签名[" + tagName + "]不一致");
     }
 
     /**
      * 设置字段值
      *
-     * @param bean  数据对象
-     * @param field 字段对象
-     * @param value 字段值
+     * @param bean    数据对象
+     * @param binding 字段映射信息
+     * @param value   字段值
      */
-    private void setFieldValue(Object bean, Field field, String value) throws IllegalAccessException {
-        Class<?> type = field.getType();
-        SimpleValueParser<?> parser = FieldValueParserFactory.getFactory(type);
-        Object obj = parser.fromXml(type, value);
-        field.setAccessible(true);
-        field.set(bean, obj);
-
-        //Reflects.setJsonValue(bean, field, value);
+    private void setFieldValue(Object bean, XMLBindingPlan.FieldBinding binding, String value) {
+        Object obj = binding.parser().fromXml(binding.type, value);
+        binding.set(bean, obj);
     }
 
     /**
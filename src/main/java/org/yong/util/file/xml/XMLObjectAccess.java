@@ -0,0 +1,26 @@
+package org.yong.util.file.xml;
+
+import org.yong.util.file.xml.engine.XMLNodeLoader;
+
+/**
+ * 解析引擎访问节点内部状态的入口, 仅供 org.yong.util.file.xml.engine.impl 中的解析引擎使用, 不属于公开API
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public final class XMLObjectAccess {
+
+    private XMLObjectAccess() {
+    }
+
+    /**
+     * 设置节点延迟加载器, 第一次访问节点子标签或标签体时加载
+     *
+     * @param node   目标节点, 不能包含子标签
+     * @param loader 子标签加载器
+     * @see org.yong.util.file.xml.engine.ParseMode#LAZY
+     */
+    public static void setLoader(XMLObject node, XMLNodeLoader loader) {
+        node.setLoader(loader);
+    }
+}
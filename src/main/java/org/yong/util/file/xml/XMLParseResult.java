@@ -0,0 +1,53 @@
+package org.yong.util.file.xml;
+
+import lombok.Getter;
+
+import java.io.File;
+
+/**
+ * 单个文件解析结果, 成功时包含根节点, 失败时包含异常
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+@Getter
+public class XMLParseResult {
+
+    /**
+     * 被解析的文件
+     */
+    private final File file;
+
+    /**
+     * 根节点, 解析失败时为null
+     */
+    private final XMLObject root;
+
+    /**
+     * 解析异常或错误, 解析成功时为null
+     */
+    private final Throwable error;
+
+    private XMLParseResult(File file, XMLObject root, Throwable error) {
+        this.file = file;
+        this.root = root;
+        this.error = error;
+    }
+
+    static XMLParseResult success(File file, XMLObject root) {
+        return new XMLParseResult(file, root, null);
+    }
+
+    static XMLParseResult failure(File file, Throwable error) {
+        return new XMLParseResult(file, null, error);
+    }
+
+    /**
+     * 是否解析成功
+     *
+     * @return boolean true-成功, false-失败
+     */
+    public boolean isSuccess() {
+        return null == error;
+    }
+}
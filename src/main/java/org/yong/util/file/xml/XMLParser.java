@@ -2,25 +2,37 @@ package org.yong.util.file.xml;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
-import org.dom4j.*;
-import org.dom4j.io.SAXReader;
 import org.yong.util.file.FileUtil;
+import org.yong.util.file.xml.document.XMLDocument;
+import org.yong.util.file.xml.engine.ParseMode;
+import org.yong.util.file.xml.engine.XMLBeanIterator;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.engine.XMLParseEngineFactory;
+import org.yong.util.file.xml.engine.impl.ProjectionParseEngine;
 import org.yong.util.file.xml.fmt.XMLObjectFormatter;
 import org.yong.util.file.xml.fmt.XMLObjectFormatterFactory;
+import org.yong.util.file.xml.source.XMLSource;
+import org.yong.util.file.xml.source.XMLSourceFactory;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * XML解析器, 注意:一个解析器只能绑定一个XML文件.
+ * XML解析器, 注意:一个解析器只能绑定一个XML数据来源.
  *
  * <pre>
  * // 获取解析器
  * XMLParser xmlParser = new XMLParser(xmlPath);
  *
+ * // 也可以解析流/字节数组等数据来源, 不需要先写入临时文件
+ * XMLParser xmlParser = new XMLParser(XMLSourceFactory.fromBytes(bytes, null));
+ *
  * // 解析XML文件
  * // 解析完成后将通过 {@link XMLObject} 节点对象获取属性和标签体
  * XMLObject root = xmlParser.parse();
@@ -33,14 +45,14 @@ import java.util.Map;
 public class XMLParser {
 
     /**
-     * XML 文件路径
+     * XML 数据来源
      */
-    private final String path;
+    private final XMLSource source;
 
     /**
-     * 文件编码, 默认使用 UTF-8
+     * 解析模式, 默认使用 {@link ParseMode#DOM4J}
      */
-    private final String fileEncoding;
+    private final ParseMode parseMode;
 
     /**
      * 构建XML解析器
@@ -51,6 +63,16 @@ public class XMLParser {
         this(path, StandardCharsets.UTF_8);
     }
 
+    /**
+     * 构建XML解析器
+     *
+     * @param path      文件路径
+     * @param parseMode 解析模式
+     */
+    public XMLParser(String path, ParseMode parseMode) {
+        this(path, StandardCharsets.UTF_8.name(), parseMode);
+    }
+
     /**
      * 构建XML解析器
      *
@@ -58,8 +80,40 @@ public class XMLParser {
      * @param fileEncoding 文件编码
      */
     public XMLParser(String path, String fileEncoding) {
-        this.path = path;
-        this.fileEncoding = fileEncoding;
+        this(path, fileEncoding, ParseMode.DOM4J);
+    }
+
+    /**
+     * 构建XML解析器
+     *
+     * @param path         文件路径
+     * @param fileEncoding 文件编码
+     * @param parseMode    解析模式, 为null时使用 {@link ParseMode#DOM4J}
+     */
+    public XMLParser(String path, String fileEncoding, ParseMode parseMode) {
+        this(XMLSourceFactory.fromPath(path, fileEncoding), parseMode);
+    }
+
+    /**
+     * 构建XML解析器
+     *
+     * @param source XML数据来源
+     * @see XMLSourceFactory
+     */
+    public XMLParser(XMLSource source) {
+        this(source, ParseMode.DOM4J);
+    }
+
+    /**
+     * 构建XML解析器
+     *
+     * @param source    XML数据来源
+     * @param parseMode 解析模式, 为null时使用 {@link ParseMode#DOM4J}
+     * @see XMLSourceFactory
+     */
+    public XMLParser(XMLSource source, ParseMode parseMode) {
+        this.source = source;
+        this.parseMode = null == parseMode ? ParseMode.DOM4J : parseMode;
     }
 
     /**
@@ -98,137 +152,138 @@ public class XMLParser {
      * @return XMLObject XML对象
      */
     public XMLObject parse() throws Exception {
-        Document document = getDocument();
-
-        // 获取根节点名称
-        Element rootElement = document.getRootElement();
-        String tagName = rootElement.getName();
-
-        // 构建 XMLObject 对象
-        XMLObject xmlObject = new XMLObject(tagName);
-        xmlObject.setParent(null);
-        xmlObject.setRootElement(Boolean.TRUE);
-
-        // 解析XML
-        parseNode(xmlObject, rootElement);
-        return xmlObject;
+        return parse(XMLParseEngineFactory.getEngine(parseMode));
     }
 
     /**
-     * 解析XML
+     * 使用指定解析引擎解析XML, 忽略构建时指定的解析模式
+     *
+     * <pre>
+     * // 使用自定义线程池并行解析
+     * XMLObject root = xmlParser.parse(new ParallelParseEngine(pool));
+     * </pre>
      *
-     * @param xmlObject 上个节点对象
-     * @param node      节点元素
+     * @param engine 解析引擎
+     * @return XMLObject XML对象
+     * @see #parse()
      */
-    private void parseNode(XMLObject xmlObject, Element node) {
-        for (int i = 0, size = node.nodeCount(); i < size; i++) {
-            Node subNode = node.node(i);
-            if (subNode instanceof Comment) {
-                continue;
-            }
-
-            XMLObject subXmlObject;
-            if (subNode instanceof Element) {
-                subXmlObject = appendSubTag(xmlObject, subNode);
-                parseNode(subXmlObject, (Element) subNode);
-                subXmlObject.setParent(xmlObject);
-            }
-        }
-
-        setAttrsAndContent(xmlObject, node);
+    public XMLObject parse(XMLParseEngine engine) throws Exception {
+        return engine.parse(source);
     }
 
     /**
-     * 设置属性和内容
+     * 解析XML并建立标签名索引, 之后重复调用 {@link XMLObject#getAllChildTags(String)}
+     * 和 {@link XMLObject#toBeans(String, Class)} 时不再遍历整个子树.
+     * 建立索引需要访问所有节点, {@link ParseMode#LAZY} 模式下会加载全部延迟节点
      *
-     * @param xmlObject XML节点映射对象
-     * @param node      XML节点
+     * @return XMLObject XML对象
+     * @see XMLObject#buildTagIndex()
      */
-    private void setAttrsAndContent(XMLObject xmlObject, Element node) {
-        if (null == xmlObject || null == node) {
-            return;
-        }
-
-        if (xmlObject.getAttrs().isEmpty()) {
-            setAttributes(xmlObject, node);
-            setContent(xmlObject, node);
-        }
+    public XMLObject parseIndexed() throws Exception {
+        return parse().buildTagIndex();
     }
 
     /**
-     * 追加子标签
+     * 按实体类映射规则解析XML, 只保留 {@link XMLObject#toBean(Class)} 会读取的标签, 属性和标签体,
+     * 其它内容在流式读取时直接跳过. 总是使用StAX读取, 不受 {@link ParseMode} 影响.
+     *
+     * <pre>
+     * TourReport report = xmlParser.parseFor(TourReport.class).toBean(TourReport.class);
+     * </pre>
      *
-     * @param xmlObject 当前节点对象
-     * @param subNode   子节点
-     * @return XMLObject 子节点映射对象
+     * @param cls 根节点映射的实体类字节码
+     * @return XMLObject 裁剪后的XML对象
      */
-    private XMLObject appendSubTag(XMLObject xmlObject, Node subNode) {
-        // 获取子标签
-        String subTagName = subNode.getName();
-        XMLObject subXmlObject = new XMLObject(subTagName);
-
-        // 添加子标签
-        xmlObject.addChildTag(subXmlObject);
-        return subXmlObject;
+    public XMLObject parseFor(Class<?> cls) throws Exception {
+        return parse(new ProjectionParseEngine(cls));
     }
 
     /**
-     * 设置标签值
+     * 解析为数组结构文档, 整个节点树保存在基本类型数组中, 适合超大文档. 总是使用StAX读取, 不受 {@link ParseMode} 影响.
+     *
+     * <pre>
+     * XMLDocument document = xmlParser.parseDocument();
+     * XMLElement task = document.getRoot().getChildTag("TourTask", 0);
+     * TourTask bean = task.toXMLObject().toBean(TourTask.class);
+     * </pre>
      *
-     * @param xmlObject XMLObject对象
-     * @param node      与XMLObject对象关联的节点
+     * @return XMLDocument 文档
      */
-    private void setContent(XMLObject xmlObject, Element node) {
-        String content = node.getTextTrim();
-        xmlObject.setContent(content);
+    public XMLDocument parseDocument() throws Exception {
+        return XMLDocument.parse(source);
     }
 
     /**
-     * 设置属性
+     * 逐条读取匹配标签并映射为实体类, 总是使用StAX读取, 不受 {@link ParseMode} 影响.
+     * 同一时间只有一个匹配标签的节点树在内存中, 且只保留实体类映射会读取的内容.
+     *
+     * <pre>
+     * try (XMLBeanIterator&lt;TourStation&gt; it = xmlParser.iterator("TourStation", TourStation.class)) {
+     *     while (it.hasNext()) {
+     *         TourStation station = it.next();
+     *     }
+     * }
+     * </pre>
      *
-     * @param xmlObject XMLObject对象
-     * @param node      与XMLObject对象关联的节点
+     * @param tagName 需要映射的标签名
+     * @param cls     实体类字节码
+     * @param <T>     实体类类型
+     * @return XMLBeanIterator 实体迭代器
+     * @see XMLObject#toBean(Class)
      */
-    private void setAttributes(XMLObject xmlObject, Element node) {
-        for (int i = 0, size = node.attributeCount(); i < size; i++) {
-            // 获取属性
-            Attribute attr = node.attribute(i);
-            // 获取属性名
-            String attrName = attr.getName();
-
-            // // 验证是否重名属性
-            // if (xmlObject.hasAttr(attrName) && isAttributeStrictest) {
-            // throw new RuntimeException("Duplicate attribute[" + attrName +
-            // "]");
-            // }
+    public <T> XMLBeanIterator<T> iterator(String tagName, Class<T> cls) throws Exception {
+        return new XMLBeanIterator<>(new ProjectionParseEngine(cls), source, tagName, cls);
+    }
 
-            // 保存属性
-            xmlObject.addAttr(attrName, attr.getValue());
-        }
+    /**
+     * 逐条读取匹配标签并映射为实体类, 使用完毕后需要关闭流
+     *
+     * <pre>
+     * try (Stream&lt;TourStation&gt; stations = xmlParser.stream("TourStation", TourStation.class)) {
+     *     stations.forEach(...);
+     * }
+     * </pre>
+     *
+     * @param tagName 需要映射的标签名
+     * @param cls     实体类字节码
+     * @param <T>     实体类类型
+     * @return Stream 实体流
+     * @see #iterator(String, Class)
+     */
+    public <T> Stream<T> stream(String tagName, Class<T> cls) throws Exception {
+        XMLBeanIterator<T> it = iterator(tagName, cls);
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                it.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
     /**
-     * 获取XML文件根节点
+     * 使用 {@link ParseMode#DOM4J} 解析目录中所有 .xml 文件, 并发数为CPU核数
      *
-     * @return Document 根节点
+     * @param dir 目录
+     * @return Map&lt;String, XMLParseResult&gt; 解析结果, Key:文件名
+     * @see XMLBatchParser
      */
-    private Document getDocument() throws Exception {
-        SAXReader saxReader = new SAXReader();
-        saxReader.setEncoding(fileEncoding);
-        File file = getXMLFile();
-        return saxReader.read(file);
+    public static Map<String, XMLParseResult> parseAll(File dir) {
+        return parseAll(dir, ParseMode.DOM4J, Runtime.getRuntime().availableProcessors());
     }
 
     /**
-     * 获取XML文件对象
+     * 解析目录中所有 .xml 文件
      *
-     * @return File XML文件对象
+     * @param dir         目录
+     * @param parseMode   解析模式
+     * @param concurrency 并发解析的线程数
+     * @return Map&lt;String, XMLParseResult&gt; 解析结果, Key:文件名
+     * @see XMLBatchParser
      */
-    private File getXMLFile() {
-        if (path == null || 0 >= path.length()) {
-            throw new RuntimeException("Path invalid[path=" + path + "]");
-        }
-        return new File(path);
+    public static Map<String, XMLParseResult> parseAll(File dir, ParseMode parseMode, int concurrency) {
+        return XMLBatchParser.parseAll(dir, parseMode, concurrency);
     }
 
     /**
@@ -0,0 +1,249 @@
+package org.yong.util.file.xml;
+
+import com.google.common.collect.Lists;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 节点树标签名索引, 保存在顶层节点上, 按文档顺序(先序遍历)记录每个标签名对应的所有节点.<br>
+ * 每个节点记录自身先序编号和最后一个后代节点的编号, 查询后代节点时二分定位, 耗时与结果数量相关.
+ * 按(标签名, 属性名)查询属性值时在快照上建立属性值哈希索引并缓存.
+ * 节点树结构变化时只标记失效, 下一次查询时重建; 属性变化时只丢弃属性值索引.
+ * 索引有效时节点树中每个节点都记录了当前索引, 修改节点时直接标记失效; 没有建立索引的节点树修改时没有额外开销
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ * @see XMLObject#buildTagIndex()
+ */
+final class XMLTagIndex {
+
+    /**
+     * 顶层节点
+     */
+    private final XMLObject root;
+
+    /**
+     * 当前索引, null表示已失效
+     */
+    private volatile Snapshot snapshot;
+
+    XMLTagIndex(XMLObject root) {
+        this.root = root;
+    }
+
+    /**
+     * 标记索引失效
+     */
+    void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * 标记属性值索引失效
+     */
+    void invalidateAttributes() {
+        Snapshot current = snapshot;
+        if (null != current)
+            snapshot = new Snapshot(current.all, current.byName);
+    }
+
+    /**
+     * 获取指定节点及其后代节点中所有同名节点, 按文档顺序排列
+     *
+     * @param from    查询起点
+     * @param tagName 标签名
+     * @return List&lt;XMLObject&gt; 节点列表, 起点不在索引中时返回null
+     */
+    List<XMLObject> find(XMLObject from, String tagName) {
+        Snapshot current = snapshot();
+        if (!current.contains(from))
+            return null;
+        return range(current.byName.get(tagName), from);
+    }
+
+    /**
+     * 获取指定节点及其后代节点中属性值匹配的同名节点, 按文档顺序排列
+     *
+     * @param from      查询起点
+     * @param tagName   标签名
+     * @param attrName  属性名
+     * @param attrValue 属性值
+     * @return List&lt;XMLObject&gt; 节点列表, 起点不在索引中时返回null
+     */
+    List<XMLObject> findBy(XMLObject from, String tagName, String attrName, String attrValue) {
+        Snapshot current = snapshot();
+        if (!current.contains(from))
+            return null;
+        return range(current.attrIndex(tagName, attrName).get(attrValue), from);
+    }
+
+    /**
+     * 获取当前快照, 已失效时重建
+     *
+     * @return Snapshot 索引快照
+     */
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return null == current ? rebuild() : current;
+    }
+
+    /**
+     * 截取编号位于查询起点子树范围内的节点
+     *
+     * @param nodes 按先序编号排列的节点, 可以为null
+     * @param from  查询起点
+     * @return List&lt;XMLObject&gt; 节点列表
+     */
+    private List<XMLObject> range(XMLObject[] nodes, XMLObject from) {
+        if (null == nodes)
+            return Lists.newArrayList();
+
+        // 二分查找第一个编号不小于起点的节点
+        int order = from.getIndexOrder();
+        int low = 0;
+        int high = nodes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (nodes[mid].getIndexOrder() < order)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        int end = from.getIndexEnd();
+        List<XMLObject> result = Lists.newArrayList();
+        for (int i = low; i < nodes.length && nodes[i].getIndexOrder() <= end; i++)
+            result.add(nodes[i]);
+        return result;
+    }
+
+    /**
+     * 重建索引, 同时更新每个节点的先序编号, 并把当前索引记录到每个节点上用于标记失效
+     *
+     * @return Snapshot 新索引
+     */
+    private synchronized Snapshot rebuild() {
+        Snapshot current = snapshot;
+        if (null != current)
+            return current;
+
+        // 先序遍历, 记录遍历时的父节点编号
+        List<XMLObject> all = Lists.newArrayList();
+        int[] parents = new int[64];
+        Deque<XMLObject> stack = new ArrayDeque<>();
+        int[] stackParents = new int[64];
+        List<XMLObject> children = Lists.newArrayList();
+        stack.push(root);
+        stackParents[0] = -1;
+        while (!stack.isEmpty()) {
+            XMLObject node = stack.pop();
+            int parent = stackParents[stack.size()];
+            int order = all.size();
+            all.add(node);
+            if (order == parents.length)
+                parents = Arrays.copyOf(parents, order << 1);
+            parents[order] = parent;
+            node.setIndexOrder(order);
+            node.setIndexEnd(order);
+            node.setTreeIndex(this);
+
+            // 子标签按集合顺序展开后逆序压栈, 保证出栈顺序与文档顺序一致
+            children.clear();
+            for (List<XMLObject> group : node.getChildTags().values())
+                children.addAll(group);
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+                if (stack.size() > stackParents.length)
+                    stackParents = Arrays.copyOf(stackParents, stackParents.length << 1);
+                stackParents[stack.size() - 1] = order;
+            }
+        }
+
+        Map<String, List<XMLObject>> names = new HashMap<>();
+        for (XMLObject node : all)
+            names.computeIfAbsent(node.getTagName(), k -> Lists.newArrayList()).add(node);
+
+        // 逆序传播后代结束编号
+        for (int i = all.size() - 1; i > 0; i--) {
+            XMLObject parent = all.get(parents[i]);
+            int end = all.get(i).getIndexEnd();
+            if (end > parent.getIndexEnd())
+                parent.setIndexEnd(end);
+        }
+
+        Map<String, XMLObject[]> byName = new HashMap<>(names.size() * 2);
+        for (Map.Entry<String, List<XMLObject>> entry : names.entrySet())
+            byName.put(entry.getKey(), entry.getValue().toArray(new XMLObject[0]));
+
+        current = new Snapshot(all.toArray(new XMLObject[0]), byName);
+        snapshot = current;
+        return current;
+    }
+
+    /**
+     * 索引快照
+     */
+    private static final class Snapshot {
+
+        /**
+         * 按先序编号排列的所有节点
+         */
+        private final XMLObject[] all;
+
+        /**
+         * 标签名索引
+         */
+        private final Map<String, XMLObject[]> byName;
+
+        /**
+         * 属性值索引, Key: 标签名, Value: {属性名: {属性值: 节点}}
+         */
+        private final Map<String, Map<String, Map<String, XMLObject[]>>> byAttr = new ConcurrentHashMap<>();
+
+        Snapshot(XMLObject[] all, Map<String, XMLObject[]> byName) {
+            this.all = all;
+            this.byName = byName;
+        }
+
+        /**
+         * 是否包含指定节点
+         *
+         * @param node 节点
+         * @return boolean true-包含, false-不包含
+         */
+        private boolean contains(XMLObject node) {
+            int order = node.getIndexOrder();
+            return order >= 0 && order < all.length && all[order] == node;
+        }
+
+        /**
+         * 获取属性值索引, 第一次访问时建立
+         *
+         * @param tagName  标签名
+         * @param attrName 属性名
+         * @return Map&lt;String, XMLObject[]&gt; Key: 属性值, Value: 按先序编号排列的节点
+         */
+        private Map<String, XMLObject[]> attrIndex(String tagName, String attrName) {
+            return byAttr.computeIfAbsent(tagName, k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(attrName, k -> {
+                        XMLObject[] nodes = byName.get(tagName);
+                        if (null == nodes)
+                            return Collections.emptyMap();
+
+                        Map<String, List<XMLObject>> values = new HashMap<>();
+                        for (XMLObject node : nodes) {
+                            String value = node.hasAttr(attrName) ? node.getAttrs().get(attrName) : null;
+                            if (null != value)
+                                values.computeIfAbsent(value, v -> Lists.newArrayList()).add(node);
+                        }
+
+                        Map<String, XMLObject[]> index = new HashMap<>(values.size() * 2);
+                        for (Map.Entry<String, List<XMLObject>> entry : values.entrySet())
+                            index.put(entry.getKey(), entry.getValue().toArray(new XMLObject[0]));
+                        return index;
+                    });
+        }
+    }
+
+}
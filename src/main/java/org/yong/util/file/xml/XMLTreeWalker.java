@@ -0,0 +1,113 @@
+package org.yong.util.file.xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 使用显式栈遍历节点树, 遍历深度不受线程栈大小限制
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+final class XMLTreeWalker {
+
+    /**
+     * 待访问节点
+     */
+    private XMLObject[] nodes = new XMLObject[32];
+
+    /**
+     * 待访问节点深度, 取反(~depth)表示离开节点
+     */
+    private int[] depths = new int[32];
+
+    private int size;
+
+    private XMLTreeWalker() {
+    }
+
+    /**
+     * 遍历节点树
+     *
+     * @param root    遍历起点
+     * @param visitor 访问器
+     * @return XMLVisitResult 被终止时返回 {@link XMLVisitResult#TERMINATE}, 否则返回 {@link XMLVisitResult#CONTINUE}
+     */
+    static XMLVisitResult walk(XMLObject root, XMLVisitor visitor) {
+        return new XMLTreeWalker().run(root, visitor);
+    }
+
+    private XMLVisitResult run(XMLObject root, XMLVisitor visitor) {
+        List<List<XMLObject>> groups = new ArrayList<>();
+        push(root, 0);
+        while (0 < size) {
+            size--;
+            XMLObject node = nodes[size];
+            int depth = depths[size];
+            nodes[size] = null;
+
+            if (depth < 0) {
+                if (XMLVisitResult.TERMINATE == visitor.leave(node, ~depth))
+                    return XMLVisitResult.TERMINATE;
+                continue;
+            }
+
+            XMLVisitResult result = visitor.enter(node, depth);
+            if (XMLVisitResult.TERMINATE == result)
+                return XMLVisitResult.TERMINATE;
+            if (XMLVisitResult.SKIP_SUBTREE == result)
+                continue;
+
+            // 叶子节点直接离开, 不再压入离开标记
+            Map<String, List<XMLObject>> childTags = node.getChildTags();
+            if (childTags.isEmpty()) {
+                if (XMLVisitResult.TERMINATE == visitor.leave(node, depth))
+                    return XMLVisitResult.TERMINATE;
+                continue;
+            }
+
+            // 先压入离开标记, 再逆序压入子节点, 保证出栈顺序与文档顺序一致
+            push(node, ~depth);
+            if (1 == childTags.size()) {
+                pushAll(childTags.values().iterator().next(), depth + 1);
+                continue;
+            }
+
+            groups.clear();
+            for (List<XMLObject> group : childTags.values())
+                groups.add(group);
+            for (int g = groups.size() - 1; g >= 0; g--)
+                pushAll(groups.get(g), depth + 1);
+        }
+        return XMLVisitResult.CONTINUE;
+    }
+
+    /**
+     * 逆序压入一组子节点
+     */
+    private void pushAll(List<XMLObject> group, int depth) {
+        int count = group.size();
+        if (size + count > nodes.length) {
+            int capacity = Math.max(nodes.length << 1, size + count);
+            nodes = Arrays.copyOf(nodes, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            nodes[size] = group.get(i);
+            depths[size] = depth;
+            size++;
+        }
+    }
+
+    private void push(XMLObject node, int depth) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size << 1);
+            depths = Arrays.copyOf(depths, size << 1);
+        }
+        nodes[size] = node;
+        depths[size] = depth;
+        size++;
+    }
+}
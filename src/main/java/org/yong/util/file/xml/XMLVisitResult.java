@@ -0,0 +1,27 @@
+package org.yong.util.file.xml;
+
+/**
+ * 节点遍历控制结果
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ * @see XMLVisitor
+ */
+public enum XMLVisitResult {
+
+    /**
+     * 继续遍历
+     */
+    CONTINUE,
+
+    /**
+     * 跳过当前节点的后代节点, 并且不再回调当前节点的 {@link XMLVisitor#leave(XMLObject, int)};
+     * 只在 {@link XMLVisitor#enter(XMLObject, int)} 中返回时有效
+     */
+    SKIP_SUBTREE,
+
+    /**
+     * 立即结束遍历
+     */
+    TERMINATE
+}
@@ -0,0 +1,40 @@
+package org.yong.util.file.xml;
+
+/**
+ * 节点访问器, 按文档顺序(先序)访问节点树
+ *
+ * <pre>
+ * root.walk((node, depth) -&gt; {
+ *     if ("TourStation".equals(node.getTagName()))
+ *         return XMLVisitResult.SKIP_SUBTREE;
+ *     return XMLVisitResult.CONTINUE;
+ * });
+ * </pre>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ * @see XMLObject#walk(XMLVisitor)
+ */
+@FunctionalInterface
+public interface XMLVisitor {
+
+    /**
+     * 进入节点, 在访问后代节点之前回调
+     *
+     * @param node  当前节点
+     * @param depth 相对遍历起点的深度, 起点为0
+     * @return XMLVisitResult 遍历控制结果, null等同于 {@link XMLVisitResult#CONTINUE}
+     */
+    XMLVisitResult enter(XMLObject node, int depth);
+
+    /**
+     * 离开节点, 在所有后代节点访问完成后回调
+     *
+     * @param node  当前节点
+     * @param depth 相对遍历起点的深度, 起点为0
+     * @return XMLVisitResult 遍历控制结果, 只有 {@link XMLVisitResult#TERMINATE} 有效
+     */
+    default XMLVisitResult leave(XMLObject node, int depth) {
+        return XMLVisitResult.CONTINUE;
+    }
+}
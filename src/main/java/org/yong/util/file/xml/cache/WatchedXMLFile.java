@@ -0,0 +1,114 @@
+package org.yong.util.file.xml.cache;
+
+import lombok.Getter;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.source.XMLSourceFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.Function;
+
+/**
+ * 被监听的XML文件, 持有最近一次成功解析的快照. 文件变化后由 {@link XMLFileWatcher} 在后台重新解析并整体替换快照,
+ * 读取方只需要一次 volatile 读, 同一快照中的节点树和实体对象总是一致的.
+ *
+ * @param <T> 映射结果类型
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class WatchedXMLFile<T> {
+
+    @Getter
+    private final File file;
+
+    private final Function<XMLObject, T> binder;
+
+    private volatile Snapshot<T> snapshot;
+
+    WatchedXMLFile(File file, Function<XMLObject, T> binder) {
+        this.file = file;
+        this.binder = binder;
+    }
+
+    /**
+     * 获取当前映射结果
+     *
+     * @return T 映射结果
+     */
+    public T get() {
+        return snapshot.getValue();
+    }
+
+    /**
+     * 获取当前快照
+     *
+     * @return Snapshot 快照
+     */
+    public Snapshot<T> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 重新解析文件并替换快照, 解析或映射失败时保留原快照.
+     * 文件修改时间和大小与当前快照相同时不重新解析
+     *
+     * @param engine   解析引擎
+     * @param encoding 文件编码
+     */
+    synchronized void reload(XMLParseEngine engine, String encoding) throws Exception {
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long length = attributes.size();
+        Snapshot<T> old = this.snapshot;
+        if (null != old && old.lastModified == lastModified && old.length == length)
+            return;
+
+        XMLObject root = engine.parse(XMLSourceFactory.fromFile(file, encoding));
+        T value = binder.apply(root);
+        this.snapshot = new Snapshot<>(root, value, lastModified, length, null == old ? 1 : old.version + 1);
+    }
+
+    /**
+     * 文件解析快照, 创建后不再修改
+     *
+     * @param <T> 映射结果类型
+     */
+    @Getter
+    public static class Snapshot<T> {
+
+        /**
+         * 根节点
+         */
+        private final XMLObject root;
+
+        /**
+         * 映射结果
+         */
+        private final T value;
+
+        /**
+         * 解析时文件修改时间
+         */
+        private final long lastModified;
+
+        /**
+         * 解析时文件大小
+         */
+        private final long length;
+
+        /**
+         * 快照版本, 每次重新解析加1
+         */
+        private final long version;
+
+        Snapshot(XMLObject root, T value, long lastModified, long length, long version) {
+            this.root = root;
+            this.value = value;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package org.yong.util.file.xml.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.engine.ParseMode;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.engine.XMLParseEngineFactory;
+import org.yong.util.file.xml.source.XMLSourceFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * XML文档解析缓存, 以文件规范路径为Key缓存解析结果.
+ * <ul>
+ * <li>每次获取时校验文件修改时间和大小, 文件变化后重新解析</li>
+ * <li>按最近最少使用淘汰, 总容量按缓存节点树估算的内存占用计算</li>
+ * <li>多个线程同时未命中同一文件时只有一个线程解析, 其它线程等待其结果</li>
+ * </ul>
+ * 缓存的节点树在多个调用方之间共享, 调用方不能修改返回的节点树.
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+@Slf4j
+public class XMLDocumentCache {
+
+    private final long maxRetainedBytes;
+
+    private final XMLParseEngine engine;
+
+    private final String encoding;
+
+    /**
+     * 缓存条目, 按访问顺序排列, 访问时需要持有当前对象锁
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 正在解析的文件
+     */
+    private final Map<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+
+    private long retainedBytes;
+
+    /**
+     * 使用 {@link ParseMode#DOM4J} 解析UTF-8文件
+     *
+     * @param maxRetainedBytes 缓存节点树估算内存占用上限(字节)
+     */
+    public XMLDocumentCache(long maxRetainedBytes) {
+        this(maxRetainedBytes, XMLParseEngineFactory.getEngine(ParseMode.DOM4J), StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * @param maxRetainedBytes 缓存节点树估算内存占用上限(字节)
+     * @param engine           解析引擎, 必须线程安全
+     * @param encoding         文件编码
+     */
+    public XMLDocumentCache(long maxRetainedBytes, XMLParseEngine engine, String encoding) {
+        if (0 >= maxRetainedBytes)
+            throw new IllegalArgumentException("缓存容量必须大于0[maxRetainedBytes=" + maxRetainedBytes + "]");
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.engine = engine;
+        this.encoding = encoding;
+    }
+
+    /**
+     * 获取文件解析结果, 缓存不存在或文件已变化时解析文件
+     *
+     * @param path 文件路径
+     * @return XMLObject 根节点
+     */
+    public XMLObject get(String path) throws Exception {
+        return get(new File(path));
+    }
+
+    /**
+     * 获取文件解析结果, 缓存不存在或文件已变化时解析文件
+     *
+     * @param file 文件
+     * @return XMLObject 根节点
+     */
+    public XMLObject get(File file) throws Exception {
+        String key = file.getCanonicalPath();
+        while (true) {
+            long lastModified = file.lastModified();
+            long length = file.length();
+
+            Entry entry;
+            synchronized (this) {
+                entry = entries.get(key);
+            }
+            if (null != entry && entry.isValid(lastModified, length))
+                return entry.root;
+
+            CompletableFuture<Entry> future = new CompletableFuture<>();
+            CompletableFuture<Entry> running = loading.putIfAbsent(key, future);
+            if (null != running) {
+                // 其它线程正在解析, 等待结果; 结果已过期时重新检查
+                entry = await(running);
+                if (entry.isValid(file.lastModified(), file.length()))
+                    return entry.root;
+                continue;
+            }
+
+            try {
+                entry = load(key, file, lastModified, length);
+                future.complete(entry);
+                return entry.root;
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                loading.remove(key, future);
+            }
+        }
+    }
+
+    /**
+     * 移除指定文件缓存
+     *
+     * @param file 文件
+     */
+    public void invalidate(File file) throws IOException {
+        String key = file.getCanonicalPath();
+        synchronized (this) {
+            Entry entry = entries.remove(key);
+            if (null != entry)
+                retainedBytes -= entry.retainedBytes;
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        entries.clear();
+        retainedBytes = 0;
+    }
+
+    /**
+     * 缓存文件数
+     *
+     * @return int 文件数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 缓存节点树估算内存占用
+     *
+     * @return long 字节数
+     */
+    public synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * 解析文件并放入缓存, 超过缓存容量的文件不缓存
+     */
+    private Entry load(String key, File file, long lastModified, long length) throws Exception {
+        XMLObject root = engine.parse(XMLSourceFactory.fromFile(file, encoding));
+        Entry entry = new Entry(root, lastModified, length, estimateRetainedBytes(root));
+
+        synchronized (this) {
+            Entry old = entries.remove(key);
+            if (null != old)
+                retainedBytes -= old.retainedBytes;
+
+            if (entry.retainedBytes > maxRetainedBytes) {
+                log.debug("文件超过缓存容量, 不缓存[" + key + "]");
+                return entry;
+            }
+
+            entries.put(key, entry);
+            retainedBytes += entry.retainedBytes;
+
+            // 淘汰最近最少使用的条目
+            Iterator<Entry> it = entries.values().iterator();
+            while (retainedBytes > maxRetainedBytes && it.hasNext()) {
+                Entry eldest = it.next();
+                it.remove();
+                retainedBytes -= eldest.retainedBytes;
+            }
+        }
+        return entry;
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception)
+                throw (Exception) cause;
+            throw e;
+        }
+    }
+
+    /**
+     * 估算节点树内存占用(64位JVM, 开启压缩指针), 只用于缓存容量控制
+     *
+     * @param root 根节点
+     * @return long 估算字节数
+     */
+    public static long estimateRetainedBytes(XMLObject root) {
+        long bytes = 0;
+        Deque<XMLObject> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            XMLObject node = stack.pop();
+
+            // XMLObject + 子标签LinkedHashMap
+            bytes += 40 + 56;
+            bytes += stringBytes(node.getTagName());
+            bytes += stringBytes(node.getContent());
+            if (node.hasAttrs()) {
+                // 属性表 + 属性数组, 属性名为共享实例不计入
+                Map<String, String> attrs = node.getAttrs();
+                bytes += 24 + 16 + 8L * attrs.size();
+                for (String value : attrs.values())
+                    bytes += stringBytes(value);
+            }
+
+            for (List<XMLObject> children : node.getChildTags().values()) {
+                // LinkedHashMap条目 + ArrayList
+                bytes += 40 + 24 + 16 + 4L * children.size();
+                for (XMLObject child : children)
+                    stack.push(child);
+            }
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String str) {
+        return null == str ? 0 : 40 + 2L * str.length();
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static class Entry {
+
+        final XMLObject root;
+
+        final long lastModified;
+
+        final long length;
+
+        final long retainedBytes;
+
+        Entry(XMLObject root, long lastModified, long length, long retainedBytes) {
+            this.root = root;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.retainedBytes = retainedBytes;
+        }
+
+        boolean isValid(long lastModified, long length) {
+            return this.lastModified == lastModified && this.length == length;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.yong.util.file.xml.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.engine.ParseMode;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.engine.XMLParseEngineFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * XML文件热加载, 基于 {@link WatchService} 监听文件所在目录, 文件创建或修改后在后台线程重新解析,
+ * 成功后原子替换 {@link WatchedXMLFile} 的快照; 解析失败时保留原快照并记录日志.
+ * <p>
+ * 短时间内的连续写入事件会被合并; 文件修改时间和大小都没有变化时不重新解析.
+ * </p>
+ *
+ * <pre>
+ * XMLFileWatcher watcher = new XMLFileWatcher();
+ * WatchedXMLFile&lt;TourTask&gt; task = watcher.watch(file, TourTask.class);
+ * // 热点路径只做一次 volatile 读
+ * TourTask current = task.get();
+ * </pre>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+@Slf4j
+public class XMLFileWatcher implements Closeable {
+
+    /**
+     * 事件合并等待时间(毫秒)
+     */
+    private static final long DEBOUNCE_MILLIS = 50;
+
+    private final XMLParseEngine engine;
+
+    private final String encoding;
+
+    private final WatchService watchService;
+
+    /**
+     * 被监听文件, Key:目录, Value:{Key:文件名, Value:监听句柄}
+     */
+    private final Map<Path, Map<Path, List<WatchedXMLFile<?>>>> watched = new ConcurrentHashMap<>();
+
+    /**
+     * 目录监听Key, 目录下没有被监听文件时取消
+     */
+    private final Map<Path, WatchKey> keys = new HashMap<>();
+
+    private final Thread thread;
+
+    /**
+     * 使用 {@link ParseMode#DOM4J} 解析UTF-8文件
+     */
+    public XMLFileWatcher() throws IOException {
+        this(XMLParseEngineFactory.getEngine(ParseMode.DOM4J), StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * @param engine   解析引擎
+     * @param encoding 文件编码
+     */
+    public XMLFileWatcher(XMLParseEngine engine, String encoding) throws IOException {
+        this.engine = engine;
+        this.encoding = encoding;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.thread = new Thread(this::run, "xml-file-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * 监听文件, 快照为解析后的根节点
+     *
+     * @param file XML文件
+     * @return WatchedXMLFile 监听句柄, 已完成首次解析
+     */
+    public WatchedXMLFile<XMLObject> watch(File file) throws Exception {
+        return watch(file, root -> root);
+    }
+
+    /**
+     * 监听文件, 快照为根节点映射的实体对象
+     *
+     * @param file XML文件
+     * @param cls  实体类字节码
+     * @param <T>  实体类类型
+     * @return WatchedXMLFile 监听句柄, 已完成首次解析
+     * @see XMLObject#toBean(Class)
+     */
+    public <T> WatchedXMLFile<T> watch(File file, Class<T> cls) throws Exception {
+        return watch(file, root -> root.toBean(cls));
+    }
+
+    /**
+     * 监听文件
+     *
+     * @param file   XML文件
+     * @param binder 根节点映射函数
+     * @param <T>    映射结果类型
+     * @return WatchedXMLFile 监听句柄, 已完成首次解析
+     */
+    public synchronized <T> WatchedXMLFile<T> watch(File file, Function<XMLObject, T> binder) throws Exception {
+        File canonical = file.getCanonicalFile();
+        WatchedXMLFile<T> handle = new WatchedXMLFile<>(canonical, binder);
+        handle.reload(engine, encoding);
+
+        Path path = canonical.toPath();
+        Path dir = path.getParent();
+        if (!keys.containsKey(dir))
+            keys.put(dir, dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+        watched.computeIfAbsent(dir, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(path.getFileName(), k -> new CopyOnWriteArrayList<>())
+                .add(handle);
+        return handle;
+    }
+
+    /**
+     * 取消监听, 句柄保留最后一次快照. 目录下没有被监听文件时取消目录监听
+     *
+     * @param handle 监听句柄
+     */
+    public synchronized void unwatch(WatchedXMLFile<?> handle) {
+        Path path = handle.getFile().toPath();
+        Path dir = path.getParent();
+        Map<Path, List<WatchedXMLFile<?>>> files = watched.get(dir);
+        if (null == files)
+            return;
+
+        List<WatchedXMLFile<?>> handles = files.get(path.getFileName());
+        if (null == handles || !handles.remove(handle) || !handles.isEmpty())
+            return;
+
+        files.remove(path.getFileName());
+        if (files.isEmpty()) {
+            watched.remove(dir);
+            keys.remove(dir).cancel();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collect(watchService.take(), changed);
+
+                // 合并短时间内的连续写入事件
+                Thread.sleep(DEBOUNCE_MILLIS);
+                WatchKey key;
+                while (null != (key = watchService.poll()))
+                    collect(key, changed);
+
+                for (Path path : changed)
+                    reload(path);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("文件监听已关闭");
+        }
+    }
+
+    /**
+     * 收集被监听文件的变化事件
+     *
+     * @param key     监听Key
+     * @param changed 发生变化的文件
+     */
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path dir = (Path) key.watchable();
+        Map<Path, List<WatchedXMLFile<?>>> files = watched.getOrDefault(dir, Collections.emptyMap());
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // 事件丢失时重新加载目录下所有被监听文件
+            if (StandardWatchEventKinds.OVERFLOW == event.kind()) {
+                for (Path name : files.keySet())
+                    changed.add(dir.resolve(name));
+                continue;
+            }
+
+            Path name = (Path) event.context();
+            if (files.containsKey(name))
+                changed.add(dir.resolve(name));
+        }
+        key.reset();
+    }
+
+    private void reload(Path path) {
+        Map<Path, List<WatchedXMLFile<?>>> files = watched.get(path.getParent());
+        List<WatchedXMLFile<?>> handles = null == files ? null : files.get(path.getFileName());
+        if (null == handles)
+            return;
+
+        for (WatchedXMLFile<?> handle : handles) {
+            try {
+                handle.reload(engine, encoding);
+            } catch (Exception e) {
+                log.error("文件重新加载失败, 保留原快照[" + path + "]", e);
+            }
+        }
+    }
+}
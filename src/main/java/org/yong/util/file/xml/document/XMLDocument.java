@@ -0,0 +1,324 @@
+package org.yong.util.file.xml.document;
+
+import org.yong.util.common.StringUtil;
+import org.yong.util.file.xml.engine.XMLParseEngineFactory;
+import org.yong.util.file.xml.source.XMLSource;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 数组结构文档模型, 整个节点树保存在若干基本类型数组中, 每个标签不再对应一个Java对象, 适合千万级节点的超大文档.
+ * <p>
+ * 标签按文档顺序编号(根节点为0), 每个标签记录父标签, 第一个子标签, 下一个同级标签, 标签名编号, 属性范围和标签体范围;
+ * 标签体和属性值连续存放在同一个字符数组中. 通过 {@link XMLElement} 轻量视图访问, 需要映射实体类时使用
+ * {@link XMLElement#toXMLObject()} 转换局部子树.
+ * </p>
+ * 节点树规则与 {@link org.yong.util.file.xml.engine.impl.StaxParseEngine} 一致. 创建后不可修改, 线程安全.
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class XMLDocument {
+
+    /**
+     * 空引用
+     */
+    static final int NONE = -1;
+
+    /**
+     * 标签数
+     */
+    final int size;
+
+    final int[] parent;
+
+    final int[] firstChild;
+
+    final int[] nextSibling;
+
+    /**
+     * 标签名编号, 对应 {@link #names}
+     */
+    final int[] name;
+
+    /**
+     * 标签体在 {@link #text} 中的开始位置和长度
+     */
+    final int[] contentStart;
+
+    final int[] contentLength;
+
+    /**
+     * 标签属性在属性数组中的开始位置, 长度为 size + 1, 第 i 个标签的属性范围为 [attrStart[i], attrStart[i + 1])
+     */
+    final int[] attrStart;
+
+    final int[] attrName;
+
+    final int[] attrValueStart;
+
+    final int[] attrValueLength;
+
+    final char[] text;
+
+    final String[] names;
+
+    private final Map<String, Integer> nameIds;
+
+    private XMLDocument(Builder builder) {
+        this.size = builder.size;
+        this.parent = Arrays.copyOf(builder.parent, size);
+        this.firstChild = Arrays.copyOf(builder.firstChild, size);
+        this.nextSibling = Arrays.copyOf(builder.nextSibling, size);
+        this.name = Arrays.copyOf(builder.name, size);
+        this.contentStart = Arrays.copyOf(builder.contentStart, size);
+        this.contentLength = Arrays.copyOf(builder.contentLength, size);
+        this.attrStart = Arrays.copyOf(builder.attrStart, size + 1);
+        this.attrStart[size] = builder.attrSize;
+        this.attrName = Arrays.copyOf(builder.attrName, builder.attrSize);
+        this.attrValueStart = Arrays.copyOf(builder.attrValueStart, builder.attrSize);
+        this.attrValueLength = Arrays.copyOf(builder.attrValueLength, builder.attrSize);
+        this.text = Arrays.copyOf(builder.text, builder.textSize);
+        this.names = Arrays.copyOf(builder.names, builder.nameIds.size());
+        this.nameIds = builder.nameIds;
+    }
+
+    /**
+     * 解析数据来源, 使用StAX读取
+     *
+     * @param source XML数据来源
+     * @return XMLDocument 文档
+     */
+    public static XMLDocument parse(XMLSource source) throws Exception {
+        Reader charReader = source.openReader();
+        InputStream in = null == charReader ? source.openStream() : null;
+        Closeable closeable = null == charReader ? in : charReader;
+        try {
+            XMLStreamReader reader = XMLParseEngineFactory.getStaxEngine().createReader(source, in, charReader);
+            try {
+                return new Builder().build(reader);
+            } finally {
+                reader.close();
+            }
+        } finally {
+            if (null != closeable)
+                closeable.close();
+        }
+    }
+
+    /**
+     * 获取根标签
+     *
+     * @return XMLElement 根标签视图
+     */
+    public XMLElement getRoot() {
+        return new XMLElement(this, 0);
+    }
+
+    /**
+     * 获取指定编号的标签
+     *
+     * @param index 标签编号(文档顺序)
+     * @return XMLElement 标签视图
+     */
+    public XMLElement getElement(int index) {
+        if (0 > index || index >= size)
+            throw new IndexOutOfBoundsException("标签编号[" + index + "]超出范围[0, " + size + ")");
+        return new XMLElement(this, index);
+    }
+
+    /**
+     * 标签总数
+     *
+     * @return int 标签数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 估算文档占用内存(字节)
+     *
+     * @return long 字节数
+     */
+    public long estimateBytes() {
+        long bytes = 4L * 7 * size + 4L * 3 * attrName.length + 2L * text.length;
+        for (String n : names)
+            bytes += 40 + 2L * n.length();
+        return bytes;
+    }
+
+    /**
+     * 标签名编号
+     *
+     * @param tagName 标签名
+     * @return int 编号, 文档中不存在该名称时返回 {@link #NONE}
+     */
+    int nameId(String tagName) {
+        Integer id = nameIds.get(tagName);
+        return null == id ? NONE : id;
+    }
+
+    String content(int index) {
+        return new String(text, contentStart[index], contentLength[index]);
+    }
+
+    String attrValue(int attr) {
+        return new String(text, attrValueStart[attr], attrValueLength[attr]);
+    }
+
+    /**
+     * 文档构建器, 按StAX事件顺序追加标签
+     */
+    private static class Builder {
+
+        int size;
+        int[] parent = new int[256];
+        int[] firstChild = new int[256];
+        int[] nextSibling = new int[256];
+        int[] name = new int[256];
+        int[] contentStart = new int[256];
+        int[] contentLength = new int[256];
+        int[] attrStart = new int[257];
+
+        /**
+         * 构建期间记录最后一个子标签, 用于追加同级标签
+         */
+        int[] lastChild = new int[256];
+
+        int attrSize;
+        int[] attrName = new int[256];
+        int[] attrValueStart = new int[256];
+        int[] attrValueLength = new int[256];
+
+        int textSize;
+        char[] text = new char[4096];
+
+        String[] names = new String[16];
+        final Map<String, Integer> nameIds = new HashMap<>();
+
+        XMLDocument build(XMLStreamReader reader) throws Exception {
+            while (reader.hasNext() && XMLStreamConstants.START_ELEMENT != reader.getEventType())
+                reader.next();
+            if (XMLStreamConstants.START_ELEMENT != reader.getEventType())
+                throw new RuntimeException("未找到根节点");
+
+            int[] stack = new int[16];
+            StringBuilder[] texts = new StringBuilder[16];
+            int depth = -1;
+            int event = reader.getEventType();
+            while (true) {
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        int node = startElement(reader, 0 > depth ? NONE : stack[depth]);
+                        if (++depth == stack.length) {
+                            stack = Arrays.copyOf(stack, depth << 1);
+                            texts = Arrays.copyOf(texts, depth << 1);
+                        }
+                        stack[depth] = node;
+                        if (null == texts[depth])
+                            texts[depth] = new StringBuilder();
+                        break;
+
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (0 <= depth)
+                            texts[depth].append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        break;
+
+                    case XMLStreamConstants.END_ELEMENT:
+                        StringBuilder content = texts[depth];
+                        int current = stack[depth];
+                        contentStart[current] = textSize;
+                        contentLength[current] = appendText(StringUtil.collapseWhitespace(content));
+                        content.setLength(0);
+                        if (0 == depth--)
+                            return new XMLDocument(this);
+                        break;
+
+                    default:
+                        // 注释, 处理指令等不解析
+                        break;
+                }
+                event = reader.next();
+            }
+        }
+
+        private int startElement(XMLStreamReader reader, int parentIndex) {
+            int node = size++;
+            if (node == parent.length)
+                grow();
+
+            parent[node] = parentIndex;
+            firstChild[node] = NONE;
+            nextSibling[node] = NONE;
+            lastChild[node] = NONE;
+            name[node] = nameId(reader.getLocalName());
+            if (NONE != parentIndex) {
+                int last = lastChild[parentIndex];
+                if (NONE == last)
+                    firstChild[parentIndex] = node;
+                else
+                    nextSibling[last] = node;
+                lastChild[parentIndex] = node;
+            }
+
+            attrStart[node] = attrSize;
+            for (int i = 0, count = reader.getAttributeCount(); i < count; i++) {
+                if (attrSize == attrName.length) {
+                    int capacity = attrSize << 1;
+                    attrName = Arrays.copyOf(attrName, capacity);
+                    attrValueStart = Arrays.copyOf(attrValueStart, capacity);
+                    attrValueLength = Arrays.copyOf(attrValueLength, capacity);
+                }
+                attrName[attrSize] = nameId(reader.getAttributeLocalName(i));
+                attrValueStart[attrSize] = textSize;
+                attrValueLength[attrSize] = appendText(reader.getAttributeValue(i));
+                attrSize++;
+            }
+            return node;
+        }
+
+        private int appendText(String value) {
+            int length = value.length();
+            if (textSize + length > text.length)
+                text = Arrays.copyOf(text, Math.max(text.length << 1, textSize + length));
+            value.getChars(0, length, text, textSize);
+            textSize += length;
+            return length;
+        }
+
+        private int nameId(String value) {
+            Integer id = nameIds.get(value);
+            if (null != id)
+                return id;
+
+            id = nameIds.size();
+            if (id == names.length)
+                names = Arrays.copyOf(names, id << 1);
+            names[id] = value;
+            nameIds.put(value, id);
+            return id;
+        }
+
+        private void grow() {
+            int capacity = parent.length << 1;
+            parent = Arrays.copyOf(parent, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            lastChild = Arrays.copyOf(lastChild, capacity);
+            name = Arrays.copyOf(name, capacity);
+            contentStart = Arrays.copyOf(contentStart, capacity);
+            contentLength = Arrays.copyOf(contentLength, capacity);
+            attrStart = Arrays.copyOf(attrStart, capacity + 1);
+        }
+    }
+}
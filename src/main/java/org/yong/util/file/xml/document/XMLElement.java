@@ -0,0 +1,261 @@
+package org.yong.util.file.xml.document;
+
+import org.yong.util.common.StringUtil;
+import org.yong.util.file.xml.XMLAttributes;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link XMLDocument} 标签视图, 只包含文档引用和标签编号, 按需从文档数组读取数据. 只读.
+ * <p>
+ * 同一标签的多个视图对象相等. 标签体和属性值每次访问时创建字符串.
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public final class XMLElement {
+
+    private final XMLDocument document;
+
+    private final int index;
+
+    XMLElement(XMLDocument document, int index) {
+        this.document = document;
+        this.index = index;
+    }
+
+    /**
+     * 所属文档
+     *
+     * @return XMLDocument 文档
+     */
+    public XMLDocument getDocument() {
+        return document;
+    }
+
+    /**
+     * 标签编号(文档顺序)
+     *
+     * @return int 编号
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * 标签名
+     *
+     * @return String 标签名
+     */
+    public String getTagName() {
+        return document.names[document.name[index]];
+    }
+
+    /**
+     * 标签体, 去掉首尾空白并合并连续空白
+     *
+     * @return String 标签体
+     */
+    public String getContent() {
+        return document.content(index);
+    }
+
+    /**
+     * 是否根节点
+     *
+     * @return boolean true-根节点
+     */
+    public boolean isRootElement() {
+        return 0 == index;
+    }
+
+    /**
+     * 父级标签
+     *
+     * @return XMLElement 父级标签, 根节点返回null
+     */
+    public XMLElement getParent() {
+        int parent = document.parent[index];
+        return XMLDocument.NONE == parent ? null : new XMLElement(document, parent);
+    }
+
+    /**
+     * 获取指定属性, 如果属性不存在或没有值, 总是返回{@link StringUtil#EMPTY}
+     *
+     * @param attrName 属性名
+     * @return String 属性值
+     */
+    public String getAttr(String attrName) {
+        int attr = findAttr(attrName);
+        String attrVal = XMLDocument.NONE == attr ? null : document.attrValue(attr);
+        return StringUtil.isNotEmpty(attrVal, true) ? attrVal : StringUtil.EMPTY;
+    }
+
+    /**
+     * 是否包含指定属性名
+     *
+     * @param attrName 属性名
+     * @return boolean true-包含指定属性
+     */
+    public boolean hasAttr(String attrName) {
+        return XMLDocument.NONE != findAttr(attrName);
+    }
+
+    /**
+     * 获取所有属性
+     *
+     * @return Map&lt;String,String&gt; 属性副本, Key:属性名, Value:属性值
+     */
+    public Map<String, String> getAttrs() {
+        int from = document.attrStart[index];
+        int to = document.attrStart[index + 1];
+        XMLAttributes attrs = new XMLAttributes(to - from);
+        for (int attr = from; attr < to; attr++)
+            attrs.put(document.names[document.attrName[attr]], document.attrValue(attr));
+        return attrs;
+    }
+
+    /**
+     * 获取所有一级子标签
+     *
+     * @return List&lt;XMLElement&gt; 子标签, 文档顺序
+     */
+    public List<XMLElement> getChildTags() {
+        List<XMLElement> children = new ArrayList<>();
+        for (int child = document.firstChild[index]; XMLDocument.NONE != child; child = document.nextSibling[child])
+            children.add(new XMLElement(document, child));
+        return children;
+    }
+
+    /**
+     * 获取指定名称的一级子标签
+     *
+     * @param tagName 标签名
+     * @return List&lt;XMLElement&gt; 子标签, 文档顺序, 总是返回合法的列表对象
+     */
+    public List<XMLElement> getChildTags(String tagName) {
+        int nameId = document.nameId(tagName);
+        if (XMLDocument.NONE == nameId)
+            return Collections.emptyList();
+
+        List<XMLElement> children = new ArrayList<>();
+        for (int child = document.firstChild[index]; XMLDocument.NONE != child; child = document.nextSibling[child])
+            if (nameId == document.name[child])
+                children.add(new XMLElement(document, child));
+        return children;
+    }
+
+    /**
+     * 获取指定子标签
+     *
+     * @param tagName 子标签名
+     * @param index   第几个 <i>tagName</i> 指定的子标签
+     * @return XMLElement 子标签, 不存在时返回null
+     */
+    public XMLElement getChildTag(String tagName, int index) {
+        int nameId = document.nameId(tagName);
+        if (XMLDocument.NONE == nameId || 0 > index)
+            return null;
+
+        for (int child = document.firstChild[this.index]; XMLDocument.NONE != child; child = document.nextSibling[child])
+            if (nameId == document.name[child] && 0 == index--)
+                return new XMLElement(document, child);
+        return null;
+    }
+
+    /**
+     * 获取当前标签及其所有后代中指定名称的标签
+     *
+     * @param tagName 标签名
+     * @return List&lt;XMLElement&gt; 标签列表, 文档顺序
+     */
+    public List<XMLElement> getAllChildTags(String tagName) {
+        int nameId = document.nameId(tagName);
+        if (XMLDocument.NONE == nameId)
+            return Collections.emptyList();
+
+        // 标签按文档顺序编号, 子树为连续区间
+        List<XMLElement> result = new ArrayList<>();
+        int end = subtreeEnd();
+        for (int node = index; node < end; node++)
+            if (nameId == document.name[node])
+                result.add(new XMLElement(document, node));
+        return result;
+    }
+
+    /**
+     * 将当前标签子树转换为 {@link XMLObject}, 转换结果与原文档无关联
+     *
+     * @return XMLObject 子树根节点, 父节点为null
+     */
+    public XMLObject toXMLObject() {
+        int end = subtreeEnd();
+        XMLObject[] nodes = new XMLObject[end - index];
+        for (int node = index; node < end; node++) {
+            int from = document.attrStart[node];
+            int to = document.attrStart[node + 1];
+            XMLAttributes attrs = from == to ? null : new XMLAttributes(to - from);
+            for (int attr = from; attr < to; attr++)
+                attrs.put(document.names[document.attrName[attr]], document.attrValue(attr));
+
+            XMLObject xmlObject = XMLParser.createNode(document.names[document.name[node]], document.content(node), attrs);
+            nodes[node - index] = xmlObject;
+            if (node != index) {
+                XMLObject parent = nodes[document.parent[node] - index];
+                parent.addChildTag(xmlObject);
+                xmlObject.setParent(parent);
+            }
+        }
+
+        XMLObject root = nodes[0];
+        root.setRootElement(isRootElement());
+        return root;
+    }
+
+    /**
+     * 子树结束编号(不包含): 当前标签或最近祖先的下一个同级标签
+     *
+     * @return int 编号
+     */
+    private int subtreeEnd() {
+        for (int node = index; XMLDocument.NONE != node; node = document.parent[node])
+            if (XMLDocument.NONE != document.nextSibling[node])
+                return document.nextSibling[node];
+        return document.size;
+    }
+
+    private int findAttr(String attrName) {
+        int nameId = document.nameId(attrName);
+        if (XMLDocument.NONE == nameId)
+            return XMLDocument.NONE;
+
+        for (int attr = document.attrStart[index], to = document.attrStart[index + 1]; attr < to; attr++)
+            if (nameId == document.attrName[attr])
+                return attr;
+        return XMLDocument.NONE;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof XMLElement)) return false;
+        XMLElement that = (XMLElement) o;
+        return document == that.document && index == that.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(document) + index;
+    }
+
+    @Override
+    public String toString() {
+        return "XMLElement{" + getTagName() + "#" + index + "}";
+    }
+}
@@ -0,0 +1,39 @@
+package org.yong.util.file.xml.engine;
+
+/**
+ * XML解析模式
+ *
+ * @version 1.4
+ */
+public enum ParseMode {
+
+    /**
+     * 使用 dom4j 构建完整 Document 后再转换为 {@link org.yong.util.file.xml.XMLObject}
+     */
+    DOM4J,
+
+    /**
+     * 使用 StAX 流式读取, 直接根据解析事件构建 {@link org.yong.util.file.xml.XMLObject},
+     * 不再保留中间 Document 对象
+     */
+    STAX,
+
+    /**
+     * 内存映射文件并直接扫描UTF-8字节, 不经过 SAXReader 和 Reader 解码链.
+     * 只支持UTF-8编码
+     */
+    MAPPED,
+
+    /**
+     * 在 {@link #MAPPED} 基础上使用公共 ForkJoinPool 并行解析根节点下的各个子树.
+     * 只支持UTF-8编码
+     */
+    PARALLEL,
+
+    /**
+     * 延迟解析: 只读取根标签, 子标签在第一次访问时才从字节缓冲区加载.
+     * 只支持UTF-8编码
+     */
+    LAZY
+
+}
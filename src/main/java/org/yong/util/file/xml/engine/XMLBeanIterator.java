@@ -0,0 +1,140 @@
+package org.yong.util.file.xml.engine;
+
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.engine.impl.StaxParseEngine;
+import org.yong.util.file.xml.source.XMLSource;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 逐条读取实体类的迭代器.
+ * <p>
+ * 每次只构建一个匹配标签(及其后代)的 {@link XMLObject}, 映射为实体类后立即丢弃,
+ * 匹配标签之外的节点不会被构建, 因此内存占用与文件大小无关.
+ * 匹配标签嵌套时只映射最外层标签.
+ * </p>
+ * 迭代完成后会自动关闭输入流, 提前结束迭代时需要调用 {@link #close()}
+ *
+ * @param <T> 实体类类型
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class XMLBeanIterator<T> implements Iterator<T>, Closeable {
+
+    private final StaxParseEngine engine;
+    private final XMLStreamReader reader;
+    /**
+     * 数据来源打开的流, 迭代结束时关闭
+     */
+    private final Closeable input;
+    private final String tagName;
+    private final Class<T> cls;
+
+    /**
+     * 预读的下一个实体
+     */
+    private T next;
+
+    private boolean closed;
+
+    /**
+     * 构建迭代器
+     *
+     * @param engine  StAX解析引擎
+     * @param source  XML数据来源
+     * @param tagName 需要映射的标签名
+     * @param cls     实体类字节码
+     */
+    public XMLBeanIterator(StaxParseEngine engine, XMLSource source, String tagName, Class<T> cls) throws IOException, XMLStreamException {
+        Reader charReader = source.openReader();
+        InputStream stream = null == charReader ? source.openStream() : null;
+        this.input = null == charReader ? stream : charReader;
+        try {
+            this.reader = engine.createReader(source, stream, charReader);
+        } catch (XMLStreamException e) {
+            input.close();
+            throw e;
+        }
+        this.engine = engine;
+        this.tagName = tagName;
+        this.cls = cls;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (null != next)
+            return true;
+        if (closed)
+            return false;
+
+        try {
+            next = readNext();
+        } catch (XMLStreamException e) {
+            closeQuietly();
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            closeQuietly();
+            throw e;
+        }
+
+        if (null == next)
+            closeQuietly();
+        return null != next;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        T bean = next;
+        next = null;
+        return bean;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * 读取下一个匹配标签并映射为实体
+     *
+     * @return 实体对象, 文件读取完毕时返回null
+     */
+    private T readNext() throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (XMLStreamConstants.START_ELEMENT == event && tagName.equals(reader.getLocalName())) {
+                XMLObject node = engine.readElement(reader);
+                return node.toBean(cls);
+            }
+        }
+        return null;
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // 读取已结束, 忽略关闭异常
+        }
+    }
+}
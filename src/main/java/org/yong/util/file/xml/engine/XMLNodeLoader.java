@@ -0,0 +1,20 @@
+package org.yong.util.file.xml.engine;
+
+import org.yong.util.file.xml.XMLObject;
+
+/**
+ * 延迟加载节点的子标签加载器, 节点第一次访问子标签或标签体时调用
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ * @see ParseMode#LAZY
+ */
+public interface XMLNodeLoader {
+
+    /**
+     * 加载节点的一级子标签和标签体. 调用时节点已持有锁, 加载器直接向节点添加子标签并设置标签体即可
+     *
+     * @param node 待加载节点
+     */
+    void load(XMLObject node);
+}
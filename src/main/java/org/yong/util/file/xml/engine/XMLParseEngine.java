@@ -0,0 +1,22 @@
+package org.yong.util.file.xml.engine;
+
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.source.XMLSource;
+
+/**
+ * XML解析引擎接口, 负责把XML数据来源转换为 {@link XMLObject} 节点树
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public interface XMLParseEngine {
+
+    /**
+     * 解析XML
+     *
+     * @param source XML数据来源
+     * @return XMLObject 根节点
+     */
+    XMLObject parse(XMLSource source) throws Exception;
+
+}
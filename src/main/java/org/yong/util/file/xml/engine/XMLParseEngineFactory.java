@@ -0,0 +1,65 @@
+package org.yong.util.file.xml.engine;
+
+import org.yong.util.file.xml.engine.impl.Dom4jParseEngine;
+import org.yong.util.file.xml.engine.impl.LazyParseEngine;
+import org.yong.util.file.xml.engine.impl.MappedParseEngine;
+import org.yong.util.file.xml.engine.impl.ParallelParseEngine;
+import org.yong.util.file.xml.engine.impl.StaxParseEngine;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * {@link XMLParseEngine}解析引擎工厂
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class XMLParseEngineFactory {
+
+    private static final Map<ParseMode, XMLParseEngine> SHARED_ENGINES = new EnumMap<>(ParseMode.class);
+
+    static {
+        for (ParseMode mode : ParseMode.values())
+            SHARED_ENGINES.put(mode, createEngine(mode));
+    }
+
+    /**
+     * 获取共享解析引擎. 所有引擎均为线程安全, 可以在多个线程中解析任意数量的数据来源,
+     * 内部复用已配置的解析器, 适合大量小文件解析
+     *
+     * @param mode 解析模式, null时使用 {@link ParseMode#DOM4J}
+     * @return XMLParseEngine 共享解析引擎
+     */
+    public static XMLParseEngine getEngine(ParseMode mode) {
+        return SHARED_ENGINES.get(null == mode ? ParseMode.DOM4J : mode);
+    }
+
+    /**
+     * 获取共享的 {@link ParseMode#STAX} 解析引擎
+     *
+     * @return StaxParseEngine 共享解析引擎
+     */
+    public static StaxParseEngine getStaxEngine() {
+        return (StaxParseEngine) getEngine(ParseMode.STAX);
+    }
+
+    /**
+     * 创建新的解析引擎, 不与其它调用方共享内部解析器池
+     *
+     * @param mode 解析模式, null时使用 {@link ParseMode#DOM4J}
+     * @return XMLParseEngine 解析引擎
+     */
+    public static XMLParseEngine createEngine(ParseMode mode) {
+        if (ParseMode.STAX == mode)
+            return new StaxParseEngine();
+        if (ParseMode.MAPPED == mode)
+            return new MappedParseEngine();
+        if (ParseMode.PARALLEL == mode)
+            return new ParallelParseEngine();
+        if (ParseMode.LAZY == mode)
+            return new LazyParseEngine();
+        return new Dom4jParseEngine();
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.yong.util.file.xml.engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 标签名/属性名符号表, 相同名称总是返回同一个字符串实例, 避免节点树中保留大量重复名称.
+ * <p>
+ * 线程安全, 可以在一次解析的多个线程之间使用, 也可以在多次解析之间共享(例如缓存的多个文档).
+ * 名称数量达到上限后不再收录新名称, 直接返回原字符串, 防止异常文档无限占用内存.
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class XMLSymbolTable {
+
+    /**
+     * 默认最大名称数
+     */
+    public static final int DEFAULT_MAX_SIZE = 64 * 1024;
+
+    private final Map<String, String> symbols = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    public XMLSymbolTable() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize 最大名称数
+     */
+    public XMLSymbolTable(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 获取名称的规范实例
+     *
+     * @param name 名称
+     * @return String 与 name 相等的规范实例
+     */
+    public String intern(String name) {
+        String symbol = symbols.get(name);
+        if (null != symbol)
+            return symbol;
+        if (symbols.size() >= maxSize)
+            return name;
+
+        symbol = symbols.putIfAbsent(name, name);
+        return null == symbol ? name : symbol;
+    }
+
+    /**
+     * 已收录名称数
+     *
+     * @return int 名称数
+     */
+    public int size() {
+        return symbols.size();
+    }
+}
@@ -0,0 +1,152 @@
+package org.yong.util.file.xml.engine.impl;
+
+import org.yong.util.common.StringUtil;
+import org.yong.util.file.xml.CompiledPath;
+import org.yong.util.file.xml.Reflects;
+import org.yong.util.file.xml.annotation.FieldType;
+import org.yong.util.file.xml.annotation.XmlField;
+import org.yong.util.file.xml.annotation.XmlTag;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体类映射投影, 根据 {@link XmlTag @XmlTag}/{@link XmlField @XmlField} 注解推导
+ * {@link org.yong.util.file.xml.XMLObject#toBean(Class) toBean} 会读取的标签, 属性和标签体.
+ * <p>
+ * 规则与 toBean 保持一致:
+ * <ul>
+ * <li>属性字段: 沿 path 找到目标标签后读取属性</li>
+ * <li>简单类型标签字段: 沿 path 找到目标标签后读取子标签标签体</li>
+ * <li>自定义类型字段: 读取一级子标签</li>
+ * <li>列表/集合/数组字段: 读取任意层级的后代标签</li>
+ * </ul>
+ * 投影可能包含环(递归实体类), 创建后不再修改, 线程安全.
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+class BeanProjection {
+
+    private static final Map<Class<?>, BeanProjection> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 需要保留的属性名
+     */
+    final Set<String> attrs = new HashSet<>();
+
+    /**
+     * 是否需要保留标签体
+     */
+    boolean content;
+
+    /**
+     * 一级子标签投影, Key:标签名
+     */
+    final Map<String, List<BeanProjection>> children = new HashMap<>();
+
+    /**
+     * 任意层级后代标签投影, Key:标签名
+     */
+    final Map<String, List<BeanProjection>> descendants = new HashMap<>();
+
+    /**
+     * 获取实体类投影
+     *
+     * @param cls 实体类字节码
+     * @return BeanProjection 投影
+     */
+    static BeanProjection of(Class<?> cls) {
+        BeanProjection projection = CACHE.get(cls);
+        if (null != projection)
+            return projection;
+
+        Map<Class<?>, BeanProjection> building = new HashMap<>();
+        projection = build(cls, building);
+        for (Map.Entry<Class<?>, BeanProjection> me : building.entrySet())
+            CACHE.putIfAbsent(me.getKey(), me.getValue());
+        return projection;
+    }
+
+    /**
+     * 构建实体类投影
+     *
+     * @param cls      实体类字节码
+     * @param building 正在构建的投影, 用于处理递归实体类
+     * @return BeanProjection 投影
+     */
+    private static BeanProjection build(Class<?> cls, Map<Class<?>, BeanProjection> building) {
+        BeanProjection projection = CACHE.get(cls);
+        if (null != projection)
+            return projection;
+        projection = building.get(cls);
+        if (null != projection)
+            return projection;
+
+        projection = new BeanProjection();
+        building.put(cls, projection);
+        for (Field field : Reflects.getFields(cls)) {
+            XmlField xmlField = field.getAnnotation(XmlField.class);
+            if (null == xmlField || Reflects.isStaticOrFinal(field))
+                continue;
+
+            BeanProjection target = projection.path(CompiledPath.compile(xmlField.path()));
+            if (FieldType.ATTRIBUTE == xmlField.type()) {
+                target.attrs.add(StringUtil.defaultIfBlank(xmlField.name(), field.getName()));
+                continue;
+            }
+
+            Class<?> fieldType = field.getType();
+            if (Reflects.isSimpleType(fieldType)) {
+                BeanProjection child = new BeanProjection();
+                child.content = true;
+                target.add(target.children, StringUtil.defaultIfBlank(xmlField.name(), fieldType.getSimpleName()), child);
+                continue;
+            }
+
+            Reflects.CollectionType collectionType = Reflects.isCollection(fieldType);
+            if (Reflects.CollectionType.ARRAY == collectionType) {
+                Class<?> type = fieldType.getComponentType();
+                String childTagName = StringUtil.defaultString(xmlField.name(), type.getSimpleName());
+                projection.add(projection.descendants, childTagName, build(type, building));
+            } else if (null != collectionType) {
+                Type genericType = field.getGenericType();
+                if (genericType instanceof ParameterizedType) {
+                    Class<?> type = (Class<?>) ((ParameterizedType) genericType).getActualTypeArguments()[0];
+                    if (type.isAnnotationPresent(XmlTag.class)) {
+                        String childTagName = StringUtil.defaultIfBlank(xmlField.name(), type.getSimpleName());
+                        projection.add(projection.descendants, childTagName, build(type, building));
+                    }
+                }
+            } else if (fieldType.isAnnotationPresent(XmlTag.class)) {
+                String childTagName = StringUtil.defaultIfBlank(xmlField.name(), fieldType.getSimpleName());
+                projection.add(projection.children, childTagName, build(fieldType, building));
+            }
+        }
+        return projection;
+    }
+
+    /**
+     * 按字段路径创建子标签投影
+     *
+     * @param path 字段路径, 忽略索引(保留所有同名子标签)
+     * @return BeanProjection 路径末端投影, 路径为空时返回当前投影
+     */
+    private BeanProjection path(CompiledPath path) {
+        BeanProjection target = this;
+        for (int i = 0; i < path.size(); i++) {
+            BeanProjection next = new BeanProjection();
+            target.add(target.children, path.getTagName(i), next);
+            target = next;
+        }
+        return target;
+    }
+
+    private void add(Map<String, List<BeanProjection>> rules, String tagName, BeanProjection projection) {
+        rules.computeIfAbsent(tagName, k -> new ArrayList<>(1)).add(projection);
+    }
+}
@@ -0,0 +1,103 @@
+package org.yong.util.file.xml.engine.impl;
+
+import org.yong.util.file.xml.engine.XMLSymbolTable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字节名称表, 标签名/属性名按字节内容缓存, 同一个名称只解码一次并且总是返回同一个字符串实例.
+ * 非线程安全, 每个扫描器单独使用; 多个扫描器之间通过 {@link XMLSymbolTable} 共享名称实例
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+class ByteNameTable {
+
+    private byte[][] keys = new byte[64][];
+
+    private String[] values = new String[64];
+
+    private int[] hashes = new int[64];
+
+    private int size;
+
+    /**
+     * 共享符号表, 为null时只在当前名称表内保证唯一
+     */
+    private final XMLSymbolTable symbols;
+
+    ByteNameTable(XMLSymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * 获取名称
+     *
+     * @param buf   字节缓冲区
+     * @param start 开始位置(包含)
+     * @param end   结束位置(不包含)
+     * @return String 名称
+     */
+    String get(ByteBuffer buf, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++)
+            hash = 31 * hash + buf.get(i);
+
+        int mask = keys.length - 1;
+        int idx = hash & mask;
+        byte[] key;
+        while (null != (key = keys[idx])) {
+            if (hash == hashes[idx] && sameBytes(key, buf, start, end))
+                return values[idx];
+            idx = (idx + 1) & mask;
+        }
+
+        // 首次出现才解码
+        key = new byte[end - start];
+        for (int i = start; i < end; i++)
+            key[i - start] = buf.get(i);
+        String value = new String(key, StandardCharsets.UTF_8);
+        if (null != symbols)
+            value = symbols.intern(value);
+
+        keys[idx] = key;
+        values[idx] = value;
+        hashes[idx] = hash;
+        if (++size * 2 > keys.length)
+            resize();
+        return value;
+    }
+
+    private static boolean sameBytes(byte[] key, ByteBuffer buf, int start, int end) {
+        if (key.length != end - start)
+            return false;
+        for (int i = 0; i < key.length; i++)
+            if (key[i] != buf.get(start + i))
+                return false;
+        return true;
+    }
+
+    private void resize() {
+        byte[][] oldKeys = keys;
+        String[] oldValues = values;
+        int[] oldHashes = hashes;
+
+        int capacity = oldKeys.length << 1;
+        keys = new byte[capacity][];
+        values = new String[capacity];
+        hashes = new int[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (null == oldKeys[i])
+                continue;
+            int idx = oldHashes[i] & mask;
+            while (null != keys[idx])
+                idx = (idx + 1) & mask;
+            keys[idx] = oldKeys[i];
+            values[idx] = oldValues[i];
+            hashes[idx] = oldHashes[i];
+        }
+    }
+}
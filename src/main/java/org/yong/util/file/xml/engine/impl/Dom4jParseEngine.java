@@ -0,0 +1,212 @@
+package org.yong.util.file.xml.engine.impl;
+
+import org.dom4j.*;
+import org.dom4j.io.SAXReader;
+import org.yong.util.file.xml.XMLAttributes;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.source.XMLSource;
+import org.xml.sax.InputSource;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * dom4j解析引擎, 先读取完整 {@link Document} 再转换为 {@link XMLObject}.
+ * <p>
+ * 线程安全, {@link SAXReader} 通过对象池复用, 不再每次解析都重新查找并创建SAX解析器
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class Dom4jParseEngine implements XMLParseEngine {
+
+    private final ParserPool<SAXReader> readerPool = new ParserPool<>(SAXReader::new);
+
+    @Override
+    public XMLObject parse(XMLSource source) throws Exception {
+        Document document = getDocument(source);
+
+        // 获取根节点名称
+        Element rootElement = document.getRootElement();
+        String tagName = rootElement.getName();
+
+        // 构建 XMLObject 对象
+        XMLObject xmlObject = XMLParser.createNode(tagName, null, null);
+        xmlObject.setParent(null);
+        xmlObject.setRootElement(Boolean.TRUE);
+
+        // 解析XML
+        parseNode(xmlObject, rootElement);
+        return xmlObject;
+    }
+
+    /**
+     * 解析XML, 使用显式栈代替递归, 嵌套层次不受线程栈大小限制.<br>
+     * 与递归实现顺序一致: 子树解析完成后才设置父节点, 并在最后设置当前节点的属性和内容
+     *
+     * @param xmlObject 上个节点对象
+     * @param node      节点元素
+     */
+    private void parseNode(XMLObject xmlObject, Element node) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(xmlObject, node));
+
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            Element element = frame.element;
+
+            // 查找下一个子元素
+            Node subNode = null;
+            while (frame.next < element.nodeCount()) {
+                Node candidate = element.node(frame.next++);
+                if (candidate instanceof Element) {
+                    subNode = candidate;
+                    break;
+                }
+            }
+
+            if (null != subNode) {
+                XMLObject subXmlObject = appendSubTag(frame.xmlObject, subNode);
+                stack.push(new Frame(subXmlObject, (Element) subNode));
+                continue;
+            }
+
+            // 当前元素的子树已解析完成
+            stack.pop();
+            setAttrsAndContent(frame.xmlObject, element);
+            if (!stack.isEmpty())
+                frame.xmlObject.setParent(stack.peek().xmlObject);
+        }
+    }
+
+    /**
+     * 设置属性和内容
+     *
+     * @param xmlObject XML节点映射对象
+     * @param node      XML节点
+     */
+    private void setAttrsAndContent(XMLObject xmlObject, Element node) {
+        if (null == xmlObject || null == node) {
+            return;
+        }
+
+        if (!xmlObject.hasAttrs()) {
+            setAttributes(xmlObject, node);
+            setContent(xmlObject, node);
+        }
+    }
+
+    /**
+     * 追加子标签
+     *
+     * @param xmlObject 当前节点对象
+     * @param subNode   子节点
+     * @return XMLObject 子节点映射对象
+     */
+    private XMLObject appendSubTag(XMLObject xmlObject, Node subNode) {
+        // 获取子标签
+        String subTagName = subNode.getName();
+        XMLObject subXmlObject = XMLParser.createNode(subTagName, null, null);
+
+        // 添加子标签
+        xmlObject.addChildTag(subXmlObject);
+        return subXmlObject;
+    }
+
+    /**
+     * 设置标签值
+     *
+     * @param xmlObject XMLObject对象
+     * @param node      与XMLObject对象关联的节点
+     */
+    private void setContent(XMLObject xmlObject, Element node) {
+        String content = node.getTextTrim();
+        xmlObject.setContent(content);
+    }
+
+    /**
+     * 设置属性
+     *
+     * @param xmlObject XMLObject对象
+     * @param node      与XMLObject对象关联的节点
+     */
+    private void setAttributes(XMLObject xmlObject, Element node) {
+        int size = node.attributeCount();
+        if (0 < size)
+            xmlObject.setAttrs(new XMLAttributes(size));
+
+        for (int i = 0; i < size; i++) {
+            // 获取属性
+            Attribute attr = node.attribute(i);
+            // 获取属性名
+            String attrName = attr.getName();
+
+            // // 验证是否重名属性
+            // if (xmlObject.hasAttr(attrName) && isAttributeStrictest) {
+            // throw new RuntimeException("Duplicate attribute[" + attrName +
+            // "]");
+            // }
+
+            // 保存属性
+            xmlObject.addAttr(attrName, attr.getValue());
+        }
+    }
+
+    /**
+     * 获取XML文件根节点
+     *
+     * @param source XML数据来源
+     * @return Document 根节点
+     */
+    private Document getDocument(XMLSource source) throws Exception {
+        InputSource inputSource = new InputSource();
+        inputSource.setSystemId(source.getSystemId());
+
+        Closeable closeable;
+        Reader reader = source.openReader();
+        if (null != reader) {
+            inputSource.setCharacterStream(reader);
+            closeable = reader;
+        } else {
+            InputStream in = source.openStream();
+            inputSource.setByteStream(in);
+            inputSource.setEncoding(source.getEncoding());
+            closeable = in;
+        }
+
+        try {
+            SAXReader saxReader = readerPool.borrow();
+            Document document = saxReader.read(inputSource);
+            readerPool.release(saxReader);
+            return document;
+        } finally {
+            closeable.close();
+        }
+    }
+
+    /**
+     * 解析栈帧
+     */
+    private static final class Frame {
+
+        private final XMLObject xmlObject;
+
+        private final Element element;
+
+        /**
+         * 下一个待处理的子节点下标
+         */
+        private int next;
+
+        private Frame(XMLObject xmlObject, Element element) {
+            this.xmlObject = xmlObject;
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.yong.util.file.xml.engine.impl;
+
+import java.util.Arrays;
+
+/**
+ * 标签结束位置索引, 按开始标签的文档顺序(先序)记录每个标签的结束位置, 以及其子树之后第一个标签的序号.
+ * 序号为 i 的标签, 第一个子标签序号为 i + 1, 下一个同级标签序号为 {@link #after(int)}.
+ * <p>
+ * 写入非线程安全; 写入完成后只读, 可以被多个线程同时读取
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+final class ElementIndex implements Utf8Scanner.ElementListener {
+
+    private long[] ends = new long[64];
+
+    private int[] after = new int[64];
+
+    private int size;
+
+    /**
+     * 跳过标签时尚未结束的标签序号, 按深度排列
+     */
+    private int[] open = new int[16];
+
+    @Override
+    public void open(int depth, long start) {
+        if (size == ends.length) {
+            ends = Arrays.copyOf(ends, size << 1);
+            after = Arrays.copyOf(after, size << 1);
+        }
+        if (depth == open.length)
+            open = Arrays.copyOf(open, depth << 1);
+        open[depth] = size++;
+    }
+
+    @Override
+    public void close(int depth, long end) {
+        int i = open[depth];
+        ends[i] = end;
+        after[i] = size;
+    }
+
+    /**
+     * 清空索引, 重新写入
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * 标签结束后的位置
+     *
+     * @param i 标签序号
+     * @return long 缓冲区位置
+     */
+    long end(int i) {
+        return ends[i];
+    }
+
+    /**
+     * 子树之后第一个标签的序号
+     *
+     * @param i 标签序号
+     * @return int 下一个同级(或祖先的同级)标签序号
+     */
+    int after(int i) {
+        return after[i];
+    }
+}
@@ -0,0 +1,133 @@
+package org.yong.util.file.xml.engine.impl;
+
+import org.yong.util.common.StringUtil;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLObjectAccess;
+import org.yong.util.file.xml.engine.XMLNodeLoader;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.engine.XMLSymbolTable;
+import org.yong.util.file.xml.source.XMLSource;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 延迟解析引擎, 解析时只读取根标签, 每个节点只记录其内容在字节缓冲区中的开始位置,
+ * 第一次访问子标签或标签体时才扫描该节点的一级内容, 子节点同样延迟加载.
+ * <p>
+ * 第一次加载根节点时记录所有标签的结束位置(每个标签12字节), 之后每次加载只扫描节点自己的一级内容, 不会重复跳过子树.
+ * </p>
+ * <p>
+ * 与 {@link MappedParseEngine} 相同只支持 UTF-8 编码; 节点树持有字节缓冲区(文件来源为内存映射)和结束位置索引直到所有节点加载完成.
+ * 未访问的子树只校验标签嵌套, 其它格式错误在加载时抛出.
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class LazyParseEngine implements XMLParseEngine {
+
+    /**
+     * 共享符号表, 为null时每次解析使用单独的符号表
+     */
+    private final XMLSymbolTable symbols;
+
+    public LazyParseEngine() {
+        this(null);
+    }
+
+    /**
+     * 多次解析共享符号表
+     *
+     * @param symbols 共享符号表
+     */
+    public LazyParseEngine(XMLSymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    @Override
+    public XMLObject parse(XMLSource source) throws Exception {
+        ByteBuffer buf = MappedParseEngine.getByteBuffer(source);
+
+        // 每次加载使用新的名称表, 同一文档的所有加载通过符号表共享名称实例
+        XMLSymbolTable symbols = null == this.symbols ? new XMLSymbolTable() : this.symbols;
+        Utf8Scanner scanner = new Utf8Scanner(buf, symbols);
+        XMLObject root = lazyElement(buf, symbols, new ElementIndex(), scanner, scanner.skipProlog(0), -1);
+        root.setRootElement(Boolean.TRUE);
+        return root;
+    }
+
+    /**
+     * 读取开始标签, 创建延迟加载节点
+     *
+     * @param buf     字节缓冲区
+     * @param symbols 符号表
+     * @param index   结束位置索引
+     * @param scanner 扫描器
+     * @param pos     标签 '&lt;' 所在位置
+     * @param id      标签在索引中的序号, 根节点为-1
+     * @return XMLObject 只包含标签名和属性的节点
+     */
+    private static XMLObject lazyElement(ByteBuffer buf, XMLSymbolTable symbols, ElementIndex index, Utf8Scanner scanner, int pos, int id) {
+        XMLObject node = scanner.startTag(pos);
+        if (scanner.isSelfClosed())
+            node.setContent(StringUtil.EMPTY);
+        else
+            XMLObjectAccess.setLoader(node, new RangeLoader(buf, symbols, index, scanner.next(), id));
+        return node;
+    }
+
+    /**
+     * 从开始标签结束位置扫描节点的一级内容, 子标签结束位置从索引中获取
+     */
+    private static class RangeLoader implements XMLNodeLoader {
+
+        private final ByteBuffer buf;
+
+        private final XMLSymbolTable symbols;
+
+        /**
+         * 结束位置索引, 加载根节点时写入
+         */
+        private final ElementIndex index;
+
+        /**
+         * 开始标签结束后的位置
+         */
+        private final int start;
+
+        /**
+         * 标签在索引中的序号, 根节点为-1
+         */
+        private final int id;
+
+        RangeLoader(ByteBuffer buf, XMLSymbolTable symbols, ElementIndex index, int start, int id) {
+            this.buf = buf;
+            this.symbols = symbols;
+            this.index = index;
+            this.start = start;
+            this.id = id;
+        }
+
+        @Override
+        public void load(XMLObject node) {
+            // 根节点上次加载失败时重新记录
+            if (0 > id)
+                index.clear();
+
+            Utf8Scanner scanner = new Utf8Scanner(buf, symbols);
+            int[] next = {id + 1};
+            scanner.scanChildren(node, start, childStart -> {
+                // 根节点跳过子树时记录所有后代标签的结束位置, 其它节点直接从索引中获取
+                int childId = next[0];
+                if (0 > id)
+                    scanner.skipElement(childStart, index);
+                next[0] = index.after(childId);
+
+                XMLObject child = lazyElement(buf, symbols, index, scanner, childStart, childId);
+                child.setParent(node);
+                node.addChildTag(child);
+                return (int) index.end(childId);
+            });
+        }
+    }
+}
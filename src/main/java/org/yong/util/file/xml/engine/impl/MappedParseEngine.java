@@ -0,0 +1,69 @@
+package org.yong.util.file.xml.engine.impl;
+
+import org.apache.commons.io.IOUtils;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.engine.XMLSymbolTable;
+import org.yong.util.file.xml.source.XMLSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 内存映射解析引擎, 文件来源通过 {@link java.nio.channels.FileChannel#map 内存映射} 读取,
+ * 直接扫描UTF-8字节构建 {@link XMLObject}, 不经过 SAXReader 和 Reader 解码.
+ * 标签名/属性名按字节缓存, 相同名称只解码一次.
+ * <p>
+ * 只支持 UTF-8 编码且不大于2GB的数据来源; 不支持字符流来源.
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class MappedParseEngine implements XMLParseEngine {
+
+    /**
+     * 共享符号表, 为null时名称只在单次解析内唯一
+     */
+    private final XMLSymbolTable symbols;
+
+    public MappedParseEngine() {
+        this(null);
+    }
+
+    /**
+     * 多次解析共享符号表, 缓存的多个文档之间共享名称实例
+     *
+     * @param symbols 共享符号表
+     */
+    public MappedParseEngine(XMLSymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    @Override
+    public XMLObject parse(XMLSource source) throws Exception {
+        return new Utf8Scanner(getByteBuffer(source), symbols).parseDocument();
+    }
+
+    /**
+     * 获取数据来源的字节缓冲区, 不支持直接获取缓冲区的字节流来源将读取全部内容
+     *
+     * @param source 数据来源
+     * @return ByteBuffer 字节缓冲区
+     */
+    static ByteBuffer getByteBuffer(XMLSource source) throws IOException {
+        if (!Utf8Scanner.isUtf8Compatible(source.getEncoding()))
+            throw new UnsupportedOperationException("只支持UTF-8编码, 指定编码为[" + source.getEncoding() + "]");
+
+        ByteBuffer buffer = source.getByteBuffer();
+        if (null != buffer)
+            return buffer;
+
+        try (InputStream in = source.openStream()) {
+            if (null == in)
+                throw new UnsupportedOperationException("字符流来源不支持字节扫描");
+            return ByteBuffer.wrap(IOUtils.toByteArray(in));
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package org.yong.util.file.xml.engine.impl;
+
+import org.yong.util.common.StringUtil;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.engine.XMLSymbolTable;
+import org.yong.util.file.xml.source.XMLSource;
+import org.yong.util.file.xml.source.impl.FileXMLSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 多核并行解析引擎, 适用于根节点包含大量同级子树的大文件.
+ * <p>
+ * 先顺序扫描根节点(如果根节点只有一个子标签, 则继续向下进入该包装标签)的一级子标签边界,
+ * 不构建任何节点; 然后在 {@link ForkJoinPool} 中分块解析各个子树,
+ * 最后按文档顺序挂载到父节点上, 同级顺序和父节点关系与顺序解析完全一致.
+ * </p>
+ * <p>
+ * 文件来源超过映射区域大小(默认2GB)时不整体映射: 按区域逐段映射扫描子标签边界, 超过区域大小的子标签
+ * 继续展开其子标签, 每个分块只映射自己的字节范围. 根标签之前的内容, 单个开始标签, 文本和注释不能超过映射区域大小.
+ * </p>
+ * 字节扫描规则同 {@link MappedParseEngine}, 只支持UTF-8编码.
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class ParallelParseEngine implements XMLParseEngine {
+
+    /**
+     * 单个任务最少解析的字节数
+     */
+    private static final int MIN_CHUNK_BYTES = 64 * 1024;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * 共享符号表, 为null时每次解析使用单独的符号表
+     */
+    private final XMLSymbolTable symbols;
+
+    /**
+     * 单次内存映射的最大字节数
+     */
+    private final int regionSize;
+
+    /**
+     * 使用公共 ForkJoinPool 并行解析
+     */
+    public ParallelParseEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 使用指定线程池并行解析
+     *
+     * @param pool 线程池
+     */
+    public ParallelParseEngine(ForkJoinPool pool) {
+        this(pool, null);
+    }
+
+    /**
+     * 使用指定线程池并行解析, 多次解析共享符号表
+     *
+     * @param pool    线程池
+     * @param symbols 共享符号表
+     */
+    public ParallelParseEngine(ForkJoinPool pool, XMLSymbolTable symbols) {
+        this(pool, symbols, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 使用指定线程池并行解析, 文件来源超过 regionSize 时按区域映射
+     *
+     * @param pool       线程池
+     * @param symbols    共享符号表
+     * @param regionSize 单次内存映射的最大字节数
+     */
+    public ParallelParseEngine(ForkJoinPool pool, XMLSymbolTable symbols, int regionSize) {
+        if (0 >= regionSize)
+            throw new IllegalArgumentException("Region size must be positive[regionSize=" + regionSize + "]");
+        this.pool = pool;
+        this.symbols = symbols;
+        this.regionSize = regionSize;
+    }
+
+    @Override
+    public XMLObject parse(XMLSource source) throws Exception {
+        // 各分块使用各自的名称表, 通过符号表共享名称实例
+        XMLSymbolTable symbols = null == this.symbols ? new XMLSymbolTable() : this.symbols;
+
+        if (source instanceof FileXMLSource && Utf8Scanner.isUtf8Compatible(source.getEncoding())) {
+            File file = ((FileXMLSource) source).getFile();
+            if (file.length() > regionSize) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    return parse(new Regions(channel, regionSize, symbols));
+                }
+            }
+        }
+        return parse(new Regions(MappedParseEngine.getByteBuffer(source), symbols));
+    }
+
+    private XMLObject parse(Regions regions) throws IOException {
+        Utf8Scanner scanner = regions.scanner;
+        XMLObject root = scanner.startTag(scanner.skipProlog(0));
+        root.setRootElement(Boolean.TRUE);
+        if (scanner.isSelfClosed()) {
+            root.setContent(StringUtil.EMPTY);
+            return root;
+        }
+
+        // 查找一级子标签边界, 只有一个子标签时沿包装标签链向下
+        Boundaries boundaries = new Boundaries();
+        Spine spine = new Spine();
+        scanChildren(regions, root, regions.base + scanner.next(), boundaries, spine);
+        if (1 == boundaries.size && null == boundaries.nodes[0])
+            boundaries = descend(regions, root, spine);
+
+        // 并行解析子树, 按文档顺序挂载
+        if (0 == boundaries.size)
+            return root;
+        long threshold = Math.max(MIN_CHUNK_BYTES, regions.size / Math.max(1, pool.getParallelism() * 4));
+        threshold = Math.min(threshold, regions.regionSize);
+        pool.invoke(new ChunkTask(regions, boundaries, 0, boundaries.size, threshold));
+        for (int i = 0; i < boundaries.size; i++)
+            attach(boundaries.parents[i], boundaries.nodes[i]);
+
+        return root;
+    }
+
+    /**
+     * 扫描标签的一级子标签边界. 扫描越过当前映射区域末尾时, 从最后读取完整的位置重新映射后继续;
+     * 从子标签开始映射仍然放不下该子标签时, 读取其开始标签并继续扫描它的一级子标签
+     *
+     * @param regions    字节内容
+     * @param container  当前标签节点
+     * @param pos        开始标签结束后的位置
+     * @param boundaries 按文档顺序记录子标签边界
+     * @param spine      记录第一个子标签的包装标签链, 可以为null
+     * @return long 结束标签之后的位置
+     */
+    private static long scanChildren(Regions regions, XMLObject container, long pos, Boundaries boundaries, Spine spine) throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            Utf8Scanner scanner = regions.scanner;
+            long base = regions.base;
+            try {
+                return base + scanner.scanChildren(container, (int) (pos - base), text, start -> {
+                    int end = scanner.skipElement(start, 0 == boundaries.size ? spine : null);
+                    boundaries.add(container, null, base + start, base + end);
+                    return end;
+                });
+            } catch (RuntimeException e) {
+                long checkpoint = base + scanner.next();
+                if (regions.isLast())
+                    throw e;
+                if (checkpoint != base) {
+                    pos = checkpoint;
+                    regions.mapFrom(pos);
+                    continue;
+                }
+                if (!regions.isStartTag())
+                    throw e;
+
+                // 子标签超过映射区域大小, 展开该子标签
+                XMLObject child = scanner.startTag(0);
+                boundaries.add(container, child, checkpoint, checkpoint);
+                if (scanner.isSelfClosed()) {
+                    child.setContent(StringUtil.EMPTY);
+                    pos = checkpoint + scanner.next();
+                } else {
+                    pos = scanChildren(regions, child, checkpoint + scanner.next(), boundaries, null);
+                }
+                regions.mapFrom(pos);
+            }
+        }
+    }
+
+    /**
+     * 沿只有一个子标签的包装标签链向下, 读取各层开始标签和标签体并挂载到父节点上.
+     * 各层子标签边界来自第一次扫描时记录的包装标签链, 每层只扫描自己的一级内容, 不再跳过子树
+     *
+     * @param regions 字节内容
+     * @param parent  包装标签链的父节点
+     * @param spine   第一次扫描时记录的包装标签链
+     * @return Boundaries 第一个不是只有一个子标签的层级的子标签边界
+     */
+    private static Boundaries descend(Regions regions, XMLObject parent, Spine spine) throws IOException {
+        // 包装标签链在第一次扫描时已在一个映射区域内跳过, 从其开始位置映射可以完整读取
+        Utf8Scanner scanner = regions.mapFrom(spine.start);
+        long base = regions.base;
+        int last = spine.spineSize - 1;
+        long start = spine.start;
+        for (int k = 0; ; k++) {
+            XMLObject node = scanner.startTag((int) (start - base));
+            attach(parent, node);
+            if (scanner.isSelfClosed()) {
+                node.setContent(StringUtil.EMPTY);
+                return new Boundaries();
+            }
+
+            // 最后一层记录所有子标签边界
+            if (k == last) {
+                Boundaries boundaries = new Boundaries();
+                int[] next = {last};
+                scanner.scanChildren(node, scanner.next(), childStart -> {
+                    long end = spine.ends[next[0]++];
+                    boundaries.add(node, null, base + childStart, end);
+                    return (int) (end - base);
+                });
+                return boundaries;
+            }
+
+            long childEnd = spine.ends[k];
+            scanner.scanChildren(node, scanner.next(), childStart -> (int) (childEnd - base));
+            parent = node;
+            start = spine.starts[k];
+        }
+    }
+
+    private static void attach(XMLObject parent, XMLObject child) {
+        parent.addChildTag(child);
+        child.setParent(parent);
+    }
+
+    /**
+     * 字节内容: 整个缓冲区, 或文件按区域映射
+     */
+    private static class Regions {
+
+        private final FileChannel channel;
+
+        private final long size;
+
+        private final int regionSize;
+
+        private final XMLSymbolTable symbols;
+
+        /**
+         * 当前映射区域及其扫描器
+         */
+        private ByteBuffer buf;
+
+        private long base;
+
+        private Utf8Scanner scanner;
+
+        Regions(ByteBuffer buf, XMLSymbolTable symbols) {
+            this.channel = null;
+            this.size = buf.limit();
+            this.regionSize = buf.limit();
+            this.symbols = symbols;
+            this.buf = buf;
+            this.scanner = new Utf8Scanner(buf, symbols);
+        }
+
+        Regions(FileChannel channel, int regionSize, XMLSymbolTable symbols) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.regionSize = regionSize;
+            this.symbols = symbols;
+            mapFrom(0);
+        }
+
+        /**
+         * 从指定位置开始映射新区域
+         *
+         * @param pos 区域开始位置
+         * @return Utf8Scanner 新区域的扫描器
+         */
+        Utf8Scanner mapFrom(long pos) throws IOException {
+            if (null == channel)
+                return scanner;
+
+            base = pos;
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(regionSize, size - pos));
+            scanner = new Utf8Scanner(buf, symbols, pos);
+            return scanner;
+        }
+
+        /**
+         * 当前区域是否已到达数据末尾, 此时扫描失败不是区域大小导致的
+         */
+        boolean isLast() {
+            return base + buf.limit() == size;
+        }
+
+        /**
+         * 当前区域是否以开始标签开头
+         */
+        boolean isStartTag() {
+            if (2 > buf.limit() || '<' != buf.get(0))
+                return false;
+            byte c = buf.get(1);
+            return '/' != c && '!' != c && '?' != c;
+        }
+
+        /**
+         * 获取包含指定范围的缓冲区
+         *
+         * @param start 开始位置
+         * @param end   结束位置
+         * @return ByteBuffer 缓冲区, 按区域映射时从 start 开始
+         */
+        ByteBuffer region(long start, long end) throws IOException {
+            if (null == channel)
+                return buf;
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        }
+    }
+
+    /**
+     * 一级子标签边界, 按文档顺序记录; 超过映射区域大小的子标签已经展开, 直接记录节点
+     */
+    private static class Boundaries {
+
+        private long[] starts = new long[64];
+
+        private long[] ends = new long[64];
+
+        private XMLObject[] parents = new XMLObject[64];
+
+        /**
+         * 子标签节点, 分块解析完成前只有展开的子标签不为null
+         */
+        private XMLObject[] nodes = new XMLObject[64];
+
+        private int size;
+
+        void add(XMLObject parent, XMLObject node, long start, long end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size << 1);
+                ends = Arrays.copyOf(ends, size << 1);
+                parents = Arrays.copyOf(parents, size << 1);
+                nodes = Arrays.copyOf(nodes, size << 1);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            parents[size] = parent;
+            nodes[size] = node;
+            size++;
+        }
+    }
+
+    /**
+     * 跳过子标签时记录的包装标签链: 从被跳过的标签开始, 每层只有一个子标签, 直到没有子标签或有多个子标签的一层.
+     * 记录项中前 spineSize - 1 项依次为链上的第2到第spineSize个标签, 之后为链上最后一个标签的所有子标签
+     */
+    private static class Spine implements Utf8Scanner.ElementListener {
+
+        private long[] starts = new long[16];
+
+        private long[] ends = new long[16];
+
+        private int size;
+
+        /**
+         * 链上的标签数量, 链上第 d 个标签(从0开始)的深度为 d
+         */
+        private int spineSize;
+
+        /**
+         * 被跳过标签的开始位置
+         */
+        private long start;
+
+        @Override
+        public void open(int depth, long pos) {
+            if (0 == depth) {
+                start = pos;
+                size = 0;
+                spineSize = 1;
+                return;
+            }
+
+            int parent = depth - 1;
+            if (parent >= spineSize)
+                return;
+
+            // 链上的标签出现第二个子标签, 链在该标签处结束
+            if (parent < spineSize - 1) {
+                spineSize = parent + 1;
+                size = parent + 1;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size << 1);
+                ends = Arrays.copyOf(ends, size << 1);
+            }
+
+            int i = size++;
+            starts[i] = pos;
+            if (i == spineSize - 1)
+                spineSize++;
+        }
+
+        @Override
+        public void close(int depth, long end) {
+            int parent = depth - 1;
+            if (0 > parent || parent >= spineSize)
+                return;
+            ends[parent < spineSize - 1 ? parent : size - 1] = end;
+        }
+    }
+
+    /**
+     * 分块解析任务, 字节数超过阈值时二分
+     */
+    private static class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = -2416382871290441874L;
+
+        private final Regions regions;
+        private final Boundaries boundaries;
+        private final int from;
+        private final int to;
+        private final long threshold;
+
+        ChunkTask(Regions regions, Boundaries boundaries, int from, int to, long threshold) {
+            this.regions = regions;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            long bytes = boundaries.ends[to - 1] - boundaries.starts[from];
+            if (1 < to - from && bytes > threshold) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChunkTask(regions, boundaries, from, mid, threshold),
+                        new ChunkTask(regions, boundaries, mid, to, threshold));
+                return;
+            }
+
+            // 只映射需要解析的子标签范围, 跳过已展开的子标签
+            int first = from;
+            int last = to - 1;
+            while (first <= last && null != boundaries.nodes[first])
+                first++;
+            while (last >= first && null != boundaries.nodes[last])
+                last--;
+            if (first > last)
+                return;
+
+            long base = null == regions.channel ? 0 : boundaries.starts[first];
+            ByteBuffer buf;
+            try {
+                buf = regions.region(base, boundaries.ends[last]);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+
+            Utf8Scanner scanner = new Utf8Scanner(buf, regions.symbols, base);
+            for (int i = first; i <= last; i++)
+                if (null == boundaries.nodes[i])
+                    boundaries.nodes[i] = scanner.parseElement((int) (boundaries.starts[i] - base));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.yong.util.file.xml.engine.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 解析器对象池, 缓存已配置好的非线程安全解析器(SAXReader/XMLInputFactory)供多线程轮流使用.
+ * <p>
+ * 池为空时直接创建新实例, 归还时超过空闲上限的实例将被丢弃, 因此不会阻塞调用线程
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+class ParserPool<T> {
+
+    private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger idleSize = new AtomicInteger();
+
+    private final Supplier<T> creator;
+
+    private final int maxIdle;
+
+    /**
+     * @param creator 实例创建器
+     * @param maxIdle 最大空闲实例数
+     */
+    ParserPool(Supplier<T> creator, int maxIdle) {
+        this.creator = creator;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * 使用CPU核数的两倍作为最大空闲实例数
+     *
+     * @param creator 实例创建器
+     */
+    ParserPool(Supplier<T> creator) {
+        this(creator, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * 借出实例, 使用完毕后必须调用 {@link #release(Object)} 归还
+     *
+     * @return T 解析器实例
+     */
+    T borrow() {
+        T parser = idle.poll();
+        if (null == parser)
+            return creator.get();
+        idleSize.decrementAndGet();
+        return parser;
+    }
+
+    /**
+     * 归还实例. 解析失败的实例可能处于不确定状态, 不应归还
+     *
+     * @param parser 解析器实例
+     */
+    void release(T parser) {
+        if (idleSize.incrementAndGet() > maxIdle) {
+            idleSize.decrementAndGet();
+            return;
+        }
+        idle.offer(parser);
+    }
+}
@@ -0,0 +1,231 @@
+package org.yong.util.file.xml.engine.impl;
+
+import org.yong.util.common.StringUtil;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 实体类投影解析引擎, 流式读取时只保留目标实体类映射会读取的标签, 属性和标签体, 其它内容直接跳过.
+ * <p>
+ * 解析结果调用 {@link XMLObject#toBean(Class)} 与完整解析结果得到相同的实体对象.
+ * 被跳过的标签只有在其后代标签需要保留时(列表/数组字段查找任意层级后代)才会保留标签名作为结构节点.
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ * @see BeanProjection
+ */
+public class ProjectionParseEngine extends StaxParseEngine {
+
+    private final BeanProjection projection;
+
+    /**
+     * @param cls 目标实体类字节码
+     */
+    public ProjectionParseEngine(Class<?> cls) {
+        this.projection = BeanProjection.of(cls);
+    }
+
+    /**
+     * 按实体类投影读取当前标签, 调用前reader必须位于 START_ELEMENT,
+     * 调用后reader位于对应的 END_ELEMENT
+     *
+     * @param reader StAX读取器
+     * @return XMLObject 当前标签映射对象, 父节点为null
+     */
+    @Override
+    public XMLObject readElement(XMLStreamReader reader) throws XMLStreamException {
+        List<BeanProjection> own = Collections.singletonList(projection);
+        Frame top = new Frame(null, createNode(reader, reader.getLocalName(), own), own, scopes(Collections.emptyList(), own));
+        top.attached = true;
+
+        int skipDepth = 0;
+        while (true) {
+            int event = reader.next();
+            if (0 < skipDepth) {
+                if (XMLStreamConstants.START_ELEMENT == event)
+                    skipDepth++;
+                else if (XMLStreamConstants.END_ELEMENT == event)
+                    skipDepth--;
+                continue;
+            }
+
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    String tagName = reader.getLocalName();
+                    own = match(top, tagName);
+                    if (own.isEmpty() && top.scopes.isEmpty()) {
+                        skipDepth = 1;
+                        break;
+                    }
+
+                    top = new Frame(top, createNode(reader, tagName, own), own, scopes(top.scopes, own));
+                    if (!own.isEmpty())
+                        attach(top);
+                    break;
+
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (null != top.text)
+                        top.text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+
+                case XMLStreamConstants.END_ELEMENT:
+                    top.node.setContent(null == top.text ? StringUtil.EMPTY : StringUtil.collapseWhitespace(top.text));
+                    if (null == top.parent)
+                        return top.node;
+                    top = top.parent;
+                    break;
+
+                default:
+                    // 注释, 处理指令等不解析
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 查找适用于子标签的投影
+     *
+     * @param parent  父标签
+     * @param tagName 子标签名
+     * @return List&lt;BeanProjection&gt; 子标签投影, 没有时返回空列表
+     */
+    private static List<BeanProjection> match(Frame parent, String tagName) {
+        List<BeanProjection> matched = Collections.emptyList();
+        for (BeanProjection p : parent.own)
+            matched = merge(matched, p.children.get(tagName));
+        for (Map<String, List<BeanProjection>> scope : parent.scopes)
+            matched = merge(matched, scope.get(tagName));
+        return matched;
+    }
+
+    private static List<BeanProjection> merge(List<BeanProjection> matched, List<BeanProjection> more) {
+        if (null == more)
+            return matched;
+        if (matched.isEmpty())
+            return more;
+
+        List<BeanProjection> merged = new ArrayList<>(matched);
+        for (BeanProjection p : more)
+            if (!containsSame(merged, p))
+                merged.add(p);
+        return merged;
+    }
+
+    private static boolean containsSame(List<?> list, Object target) {
+        for (Object item : list)
+            if (item == target)
+                return true;
+        return false;
+    }
+
+    /**
+     * 计算子标签可用的后代投影范围: 父级范围加上当前标签投影的后代规则
+     *
+     * @param parentScopes 父级范围
+     * @param own          当前标签投影
+     * @return List&lt;Map&gt; 后代投影范围
+     */
+    private static List<Map<String, List<BeanProjection>>> scopes(List<Map<String, List<BeanProjection>>> parentScopes, List<BeanProjection> own) {
+        List<Map<String, List<BeanProjection>>> scopes = parentScopes;
+        for (BeanProjection p : own) {
+            if (p.descendants.isEmpty() || containsSame(scopes, p.descendants))
+                continue;
+            if (scopes == parentScopes)
+                scopes = new ArrayList<>(parentScopes);
+            scopes.add(p.descendants);
+        }
+        return scopes;
+    }
+
+    /**
+     * 将节点及其尚未挂载的祖先节点挂载到节点树
+     *
+     * @param frame 节点帧
+     */
+    private static void attach(Frame frame) {
+        while (!frame.attached) {
+            frame.attached = true;
+            frame.parent.node.addChildTag(frame.node);
+            frame.node.setParent(frame.parent.node);
+            frame = frame.parent;
+        }
+    }
+
+    /**
+     * 创建节点, 只保留投影需要的属性
+     *
+     * @param reader  StAX读取器
+     * @param tagName 标签名
+     * @param own     当前标签投影
+     * @return XMLObject 新节点
+     */
+    private static XMLObject createNode(XMLStreamReader reader, String tagName, List<BeanProjection> own) {
+        XMLObject node = XMLParser.createNode(tagName, null, null);
+        if (own.isEmpty())
+            return node;
+
+        for (int i = 0, size = reader.getAttributeCount(); i < size; i++) {
+            String attrName = reader.getAttributeLocalName(i);
+            for (BeanProjection p : own) {
+                if (p.attrs.contains(attrName)) {
+                    node.addAttr(attrName, reader.getAttributeValue(i));
+                    break;
+                }
+            }
+        }
+        return node;
+    }
+
+    /**
+     * 当前读取路径上的标签
+     */
+    private static class Frame {
+
+        final Frame parent;
+
+        final XMLObject node;
+
+        /**
+         * 直接适用于当前标签的投影, 为空时当前标签只作为结构节点
+         */
+        final List<BeanProjection> own;
+
+        /**
+         * 当前标签的子标签可用的后代投影范围
+         */
+        final List<Map<String, List<BeanProjection>>> scopes;
+
+        /**
+         * 标签体, 不需要保留时为null
+         */
+        final StringBuilder text;
+
+        /**
+         * 是否已挂载到父节点
+         */
+        boolean attached;
+
+        Frame(Frame parent, XMLObject node, List<BeanProjection> own, List<Map<String, List<BeanProjection>>> scopes) {
+            this.parent = parent;
+            this.node = node;
+            this.own = own;
+            this.scopes = scopes;
+
+            boolean content = false;
+            for (BeanProjection p : own)
+                content |= p.content;
+            this.text = content ? new StringBuilder() : null;
+        }
+    }
+}
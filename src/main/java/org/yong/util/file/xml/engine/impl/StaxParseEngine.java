@@ -0,0 +1,159 @@
+package org.yong.util.file.xml.engine.impl;
+
+import org.yong.util.common.StringUtil;
+import org.yong.util.file.xml.XMLAttributes;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.source.XMLSource;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * StAX解析引擎, 根据解析事件直接构建 {@link XMLObject}, 不再构建 dom4j Document.
+ * <p>
+ * 生成的节点树与 {@link Dom4jParseEngine} 保持一致:
+ * <ul>
+ * <li>标签名/属性名使用本地名称(不含命名空间前缀), 命名空间声明不作为属性</li>
+ * <li>标签体为当前标签直接包含的文本(含CDATA), 去掉首尾空白并合并连续空白</li>
+ * <li>注释和处理指令将被忽略</li>
+ * </ul>
+ * 线程安全, 已配置的 {@link XMLInputFactory} 通过对象池复用
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class StaxParseEngine implements XMLParseEngine {
+
+    private static final ParserPool<XMLInputFactory> FACTORY_POOL = new ParserPool<>(StaxParseEngine::createFactory);
+
+    @Override
+    public XMLObject parse(XMLSource source) throws Exception {
+        Reader charReader = source.openReader();
+        InputStream in = null == charReader ? source.openStream() : null;
+        Closeable closeable = null == charReader ? in : charReader;
+        try {
+            XMLStreamReader reader = createReader(source, in, charReader);
+            try {
+                // 跳过文档声明/注释等, 定位到根标签
+                while (reader.hasNext() && XMLStreamConstants.START_ELEMENT != reader.getEventType())
+                    reader.next();
+                if (XMLStreamConstants.START_ELEMENT != reader.getEventType())
+                    throw new RuntimeException("未找到根节点[source=" + source.getSystemId() + "]");
+
+                XMLObject root = readElement(reader);
+                root.setRootElement(Boolean.TRUE);
+                return root;
+            } finally {
+                reader.close();
+            }
+        } finally {
+            if (null != closeable)
+                closeable.close();
+        }
+    }
+
+    /**
+     * 创建StAX读取器
+     *
+     * @param source     XML数据来源
+     * @param in         source打开的字节流, 字符来源时为null
+     * @param charReader source打开的字符流, 字节来源时为null
+     * @return XMLStreamReader 读取器
+     */
+    public XMLStreamReader createReader(XMLSource source, InputStream in, Reader charReader) throws XMLStreamException {
+        XMLInputFactory inputFactory = FACTORY_POOL.borrow();
+        XMLStreamReader reader;
+        if (null != charReader)
+            reader = inputFactory.createXMLStreamReader(charReader);
+        else if (null == source.getEncoding())
+            reader = inputFactory.createXMLStreamReader(in);
+        else
+            reader = inputFactory.createXMLStreamReader(in, source.getEncoding());
+        FACTORY_POOL.release(inputFactory);
+        return reader;
+    }
+
+    /**
+     * 创建并配置StAX工厂
+     *
+     * @return XMLInputFactory StAX工厂
+     */
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        inputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.TRUE);
+        return inputFactory;
+    }
+
+    /**
+     * 读取当前标签(包括所有后代标签), 调用前reader必须位于 START_ELEMENT,
+     * 调用后reader位于对应的 END_ELEMENT
+     *
+     * @param reader StAX读取器
+     * @return XMLObject 当前标签映射对象, 父节点为null
+     */
+    public XMLObject readElement(XMLStreamReader reader) throws XMLStreamException {
+        Deque<XMLObject> nodes = new ArrayDeque<>();
+        Deque<StringBuilder> texts = new ArrayDeque<>();
+        XMLObject top = null;
+
+        int event = reader.getEventType();
+        while (true) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    XMLObject node = createNode(reader);
+                    XMLObject parent = nodes.peek();
+                    if (null != parent) {
+                        parent.addChildTag(node);
+                        node.setParent(parent);
+                    }
+                    nodes.push(node);
+                    texts.push(new StringBuilder());
+                    break;
+
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    StringBuilder text = texts.peek();
+                    if (null != text)
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+
+                case XMLStreamConstants.END_ELEMENT:
+                    top = nodes.pop();
+                    top.setContent(StringUtil.collapseWhitespace(texts.pop()));
+                    if (nodes.isEmpty())
+                        return top;
+                    break;
+
+                default:
+                    // 注释, 处理指令等不解析
+                    break;
+            }
+            event = reader.next();
+        }
+    }
+
+    /**
+     * 根据 START_ELEMENT 事件创建节点并设置属性
+     *
+     * @param reader StAX读取器
+     * @return XMLObject 新节点
+     */
+    private XMLObject createNode(XMLStreamReader reader) {
+        int size = reader.getAttributeCount();
+        XMLObject node = XMLParser.createNode(reader.getLocalName(), null, 0 == size ? null : new XMLAttributes(size));
+        for (int i = 0; i < size; i++)
+            node.addAttr(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        return node;
+    }
+}
@@ -0,0 +1,815 @@
+package org.yong.util.file.xml.engine.impl;
+
+import org.yong.util.common.StringUtil;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.engine.XMLSymbolTable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * UTF-8字节扫描器, 直接扫描缓冲区字节构建 {@link XMLObject}, 不经过 Reader 解码.
+ * <p>
+ * 只支持 UTF-8(或兼容的 US-ASCII)编码, 只识别XML预定义实体和字符引用.
+ * 生成的节点树规则与 {@link Dom4jParseEngine} 一致:
+ * 标签名/属性名使用本地名称, 命名空间声明不作为属性, 标签体去掉首尾空白并合并连续空白.
+ * </p>
+ * 缓冲区只使用绝对位置读取, 多个扫描器可以同时读取同一个缓冲区. 单个扫描器非线程安全.
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+class Utf8Scanner {
+
+    private final ByteBuffer buf;
+
+    private final int limit;
+
+    private final ByteNameTable names;
+
+    /**
+     * 缓冲区在整个数据来源中的偏移量, 只用于错误提示
+     */
+    private final long base;
+
+    /**
+     * 解码缓冲, 按需扩容
+     */
+    private char[] chars = new char[128];
+
+    /**
+     * 最近一次读取结束的位置
+     */
+    private int next;
+
+    /**
+     * 最近一次读取的开始标签是否自闭合
+     */
+    private boolean selfClosed;
+
+    /**
+     * 构建扫描器
+     *
+     * @param buf 字节缓冲区, 扫描范围 0 到 limit
+     */
+    Utf8Scanner(ByteBuffer buf) {
+        this(buf, null);
+    }
+
+    /**
+     * 构建扫描器
+     *
+     * @param buf     字节缓冲区, 扫描范围 0 到 limit
+     * @param symbols 共享符号表, 可以为null
+     */
+    Utf8Scanner(ByteBuffer buf, XMLSymbolTable symbols) {
+        this(buf, symbols, 0);
+    }
+
+    /**
+     * 构建扫描器, 缓冲区只是数据来源的一个区域
+     *
+     * @param buf     字节缓冲区, 扫描范围 0 到 limit
+     * @param symbols 共享符号表, 可以为null
+     * @param base    缓冲区在数据来源中的偏移量
+     */
+    Utf8Scanner(ByteBuffer buf, XMLSymbolTable symbols, long base) {
+        this.buf = buf;
+        this.limit = buf.limit();
+        this.names = new ByteNameTable(symbols);
+        this.base = base;
+    }
+
+    /**
+     * 解析整个文档
+     *
+     * @return XMLObject 根节点
+     */
+    XMLObject parseDocument() {
+        int pos = skipProlog(0);
+        XMLObject root = parseElement(pos);
+        root.setRootElement(Boolean.TRUE);
+        return root;
+    }
+
+    /**
+     * 最近一次读取结束的位置
+     *
+     * @return int 缓冲区位置
+     */
+    int next() {
+        return next;
+    }
+
+    /**
+     * 最近一次读取的开始标签是否自闭合
+     *
+     * @return boolean true-自闭合标签
+     */
+    boolean isSelfClosed() {
+        return selfClosed;
+    }
+
+    /**
+     * 跳过BOM, XML声明, 注释, 处理指令和DOCTYPE, 定位到根标签
+     *
+     * @param pos 开始位置
+     * @return int 根标签 '&lt;' 所在位置
+     */
+    int skipProlog(int pos) {
+        if (3 <= limit && (byte) 0xEF == buf.get(0) && (byte) 0xBB == buf.get(1) && (byte) 0xBF == buf.get(2))
+            pos = 3;
+        else if (2 <= limit && ((byte) 0xFE == buf.get(0) || (byte) 0xFF == buf.get(0)))
+            throw new UnsupportedOperationException("只支持UTF-8编码, 检测到UTF-16字节序标记");
+
+        while (true) {
+            pos = skipWhitespace(pos);
+            if (pos >= limit)
+                throw error(pos, "未找到根节点");
+            if ('<' != buf.get(pos))
+                throw error(pos, "根节点之前存在无效内容");
+
+            byte c = byteAt(pos + 1);
+            if ('?' == c) {
+                if (startsWith(pos, "<?xml") && isWhitespace(byteAt(pos + 5)))
+                    checkDeclaredEncoding(pos);
+                pos = skipTo(pos + 2, "?>");
+            } else if (startsWith(pos, "<!--")) {
+                pos = skipTo(pos + 4, "-->");
+            } else if (startsWith(pos, "<!DOCTYPE")) {
+                pos = skipDoctype(pos + 9);
+            } else {
+                return pos;
+            }
+        }
+    }
+
+    /**
+     * 解析完整标签(包括所有后代标签), 结束位置通过 {@link #next()} 获取
+     *
+     * @param pos 标签 '&lt;' 所在位置
+     * @return XMLObject 标签映射对象, 父节点为null
+     */
+    XMLObject parseElement(int pos) {
+        XMLObject element = startTag(pos);
+        pos = next;
+        if (selfClosed) {
+            element.setContent(StringUtil.EMPTY);
+            return element;
+        }
+
+        XMLObject[] nodes = new XMLObject[16];
+        StringBuilder[] texts = new StringBuilder[16];
+        int depth = 0;
+        nodes[0] = element;
+
+        while (0 <= depth) {
+            if (pos >= limit)
+                throw error(pos, "标签未闭合[" + nodes[depth].getTagName() + "]");
+
+            if ('<' != buf.get(pos)) {
+                texts[depth] = appendText(texts[depth], pos, pos = indexOf(pos, '<'));
+                continue;
+            }
+
+            byte c = byteAt(pos + 1);
+            if ('/' == c) {
+                XMLObject node = nodes[depth];
+                pos = endTag(pos, node);
+                node.setContent(toContent(texts[depth]));
+                nodes[depth] = null;
+                texts[depth] = null;
+                depth--;
+            } else if ('!' == c) {
+                if (startsWith(pos, "<!--")) {
+                    pos = skipTo(pos + 4, "-->");
+                } else if (startsWith(pos, "<![CDATA[")) {
+                    int end = indexOf(pos + 9, "]]>");
+                    texts[depth] = appendCData(texts[depth], pos + 9, end);
+                    pos = end + 3;
+                } else {
+                    throw error(pos, "无效的标签");
+                }
+            } else if ('?' == c) {
+                pos = skipTo(pos + 2, "?>");
+            } else {
+                XMLObject parent = nodes[depth];
+                XMLObject child = startTag(pos);
+                pos = next;
+                parent.addChildTag(child);
+                child.setParent(parent);
+
+                if (selfClosed) {
+                    child.setContent(StringUtil.EMPTY);
+                    continue;
+                }
+
+                if (++depth == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, depth << 1);
+                    texts = Arrays.copyOf(texts, depth << 1);
+                }
+                nodes[depth] = child;
+            }
+        }
+
+        next = pos;
+        return element;
+    }
+
+    /**
+     * 扫描标签的一级内容: 读取标签体文本并设置到节点中, 一级子标签交给 handler 处理, 直到读取完结束标签.
+     *
+     * @param node    当前标签节点
+     * @param pos     开始标签结束后的位置
+     * @param handler 一级子标签处理器
+     * @return int 结束标签之后的位置
+     */
+    int scanChildren(XMLObject node, int pos, ChildHandler handler) {
+        return scanChildren(node, pos, new StringBuilder(), handler);
+    }
+
+    /**
+     * 同 {@link #scanChildren(XMLObject, int, ChildHandler)}, 标签体缓存由调用者提供.
+     * 每读取一项内容之前把开始位置记录到 {@link #next()}; 缓冲区只是数据来源的一个区域时,
+     * 扫描越过区域末尾失败后, 可以使用同一个缓存从 next 处在新的区域中继续扫描
+     *
+     * @param node    当前标签节点
+     * @param pos     开始位置
+     * @param text    标签体缓存, 只追加已完整读取的内容
+     * @param handler 一级子标签处理器
+     * @return int 结束标签之后的位置
+     */
+    int scanChildren(XMLObject node, int pos, StringBuilder text, ChildHandler handler) {
+        while (true) {
+            next = pos;
+            if (pos >= limit)
+                throw error(pos, "标签未闭合[" + node.getTagName() + "]");
+
+            if ('<' != buf.get(pos)) {
+                appendText(text, pos, pos = indexOf(pos, '<'));
+                continue;
+            }
+
+            byte c = byteAt(pos + 1);
+            if ('/' == c) {
+                pos = endTag(pos, node);
+                node.setContent(toContent(text));
+                return pos;
+            } else if ('!' == c) {
+                if (startsWith(pos, "<!--")) {
+                    pos = skipTo(pos + 4, "-->");
+                } else if (startsWith(pos, "<![CDATA[")) {
+                    int end = indexOf(pos + 9, "]]>");
+                    appendCData(text, pos + 9, end);
+                    pos = end + 3;
+                } else {
+                    throw error(pos, "无效的标签");
+                }
+            } else if ('?' == c) {
+                pos = skipTo(pos + 2, "?>");
+            } else {
+                pos = handler.child(pos);
+            }
+        }
+    }
+
+    /**
+     * 一级子标签处理器
+     */
+    interface ChildHandler {
+
+        /**
+         * 处理子标签
+         *
+         * @param start 子标签 '&lt;' 所在位置
+         * @return int 子标签结束后的位置
+         */
+        int child(int start);
+    }
+
+    /**
+     * 跳过完整标签(包括所有后代标签), 不构建任何节点
+     *
+     * @param pos 标签 '&lt;' 所在位置
+     * @return int 标签结束后的位置
+     */
+    int skipElement(int pos) {
+        return skipElement(pos, null);
+    }
+
+    /**
+     * 跳过完整标签(包括所有后代标签), 不构建任何节点, 每个标签的开始和结束通知给监听器
+     *
+     * @param pos      标签 '&lt;' 所在位置
+     * @param listener 标签边界监听器, 可以为null
+     * @return int 标签结束后的位置
+     */
+    int skipElement(int pos, ElementListener listener) {
+        if (null != listener)
+            listener.open(0, base + pos);
+        pos = skipTag(pos);
+        if (selfClosed) {
+            if (null != listener)
+                listener.close(0, base + pos);
+            return pos;
+        }
+
+        int depth = 0;
+        while (true) {
+            pos = indexOf(pos, '<');
+            byte c = byteAt(pos + 1);
+            if ('/' == c) {
+                pos = indexOf(pos, '>') + 1;
+                if (null != listener)
+                    listener.close(depth, base + pos);
+                if (0 == depth--)
+                    return pos;
+            } else if ('!' == c) {
+                if (startsWith(pos, "<!--"))
+                    pos = skipTo(pos + 4, "-->");
+                else if (startsWith(pos, "<![CDATA["))
+                    pos = skipTo(pos + 9, "]]>");
+                else
+                    throw error(pos, "无效的标签");
+            } else if ('?' == c) {
+                pos = skipTo(pos + 2, "?>");
+            } else {
+                if (null != listener)
+                    listener.open(depth + 1, base + pos);
+                pos = skipTag(pos);
+                if (!selfClosed)
+                    depth++;
+                else if (null != listener)
+                    listener.close(depth + 1, base + pos);
+            }
+        }
+    }
+
+    /**
+     * 跳过标签时的标签边界监听器, 位置为数据来源中的绝对位置
+     */
+    interface ElementListener {
+
+        /**
+         * 标签开始
+         *
+         * @param depth 相对被跳过标签的深度, 被跳过标签为0
+         * @param start 标签 '&lt;' 所在位置
+         */
+        void open(int depth, long start);
+
+        /**
+         * 标签结束, 自闭合标签在 open 之后立即调用
+         *
+         * @param depth 相对被跳过标签的深度
+         * @param end   标签结束后的位置
+         */
+        void close(int depth, long end);
+    }
+
+    /**
+     * 读取开始标签及其属性, 结束位置通过 {@link #next()} 获取,
+     * 是否自闭合通过 {@link #isSelfClosed()} 获取
+     *
+     * @param pos 标签 '&lt;' 所在位置
+     * @return XMLObject 新节点, 只包含标签名和属性
+     */
+    XMLObject startTag(int pos) {
+        int nameStart = pos + 1;
+        int nameEnd = scanName(nameStart);
+        if (nameEnd == nameStart)
+            throw error(pos, "缺少标签名");
+
+        XMLObject node = XMLParser.createNode(localName(nameStart, nameEnd), null, null);
+        pos = nameEnd;
+        while (true) {
+            pos = skipWhitespace(pos);
+            byte b = byteAt(pos);
+            if ('>' == b) {
+                selfClosed = false;
+                next = pos + 1;
+                return node;
+            }
+            if ('/' == b) {
+                expect(pos + 1, '>');
+                selfClosed = true;
+                next = pos + 2;
+                return node;
+            }
+
+            // 属性名
+            int attrStart = pos;
+            int attrEnd = scanName(attrStart);
+            if (attrEnd == attrStart)
+                throw error(pos, "无效的属性");
+            pos = skipWhitespace(attrEnd);
+            expect(pos, '=');
+            pos = skipWhitespace(pos + 1);
+
+            // 属性值
+            byte quote = byteAt(pos);
+            if ('"' != quote && '\'' != quote)
+                throw error(pos, "属性值缺少引号");
+            int valueEnd = indexOf(pos + 1, (char) quote);
+
+            if (!isNamespaceDeclaration(attrStart, attrEnd))
+                node.addAttr(localName(attrStart, attrEnd), decode(pos + 1, valueEnd, true, true));
+            pos = valueEnd + 1;
+        }
+    }
+
+    /**
+     * 读取结束标签并校验标签名
+     *
+     * @param pos  结束标签 '&lt;' 所在位置
+     * @param node 对应的开始标签节点
+     * @return int 结束标签之后的位置
+     */
+    int endTag(int pos, XMLObject node) {
+        int nameStart = pos + 2;
+        int nameEnd = scanName(nameStart);
+        String name = localName(nameStart, nameEnd);
+        if (!name.equals(node.getTagName()))
+            throw error(pos, "结束标签[" + name + "]与开始标签[" + node.getTagName() + "]不匹配");
+
+        pos = skipWhitespace(nameEnd);
+        expect(pos, '>');
+        return pos + 1;
+    }
+
+    /**
+     * 追加文本片段到标签体缓存. 纯空白片段不解码, 只在已有内容时记录为一个空格(最终会被合并)
+     *
+     * @param text  当前标签体缓存, 可以为null
+     * @param start 开始位置
+     * @param end   结束位置
+     * @return StringBuilder 标签体缓存
+     */
+    StringBuilder appendText(StringBuilder text, int start, int end) {
+        int i = start;
+        while (i < end && isWhitespace(buf.get(i)))
+            i++;
+
+        if (i == end) {
+            if (null != text && start < end)
+                text.append(' ');
+            return text;
+        }
+
+        if (null == text)
+            text = new StringBuilder(end - start);
+        else if (i > start)
+            text.append(' ');
+        text.append(chars, 0, decodeChars(i, end, true, false));
+        return text;
+    }
+
+    /**
+     * 追加CDATA内容到标签体缓存
+     *
+     * @param text  当前标签体缓存, 可以为null
+     * @param start 开始位置
+     * @param end   结束位置
+     * @return StringBuilder 标签体缓存
+     */
+    StringBuilder appendCData(StringBuilder text, int start, int end) {
+        if (start == end)
+            return text;
+        if (null == text)
+            text = new StringBuilder(end - start);
+        text.append(chars, 0, decodeChars(start, end, false, false));
+        return text;
+    }
+
+    /**
+     * 标签体缓存转为标签体
+     *
+     * @param text 标签体缓存
+     * @return String 标签体
+     */
+    static String toContent(StringBuilder text) {
+        return null == text || 0 == text.length() ? StringUtil.EMPTY : StringUtil.collapseWhitespace(text);
+    }
+
+    /**
+     * 查找指定字符
+     *
+     * @param pos 开始位置
+     * @param c   目标字符(ASCII)
+     * @return int 字符所在位置
+     */
+    int indexOf(int pos, char c) {
+        for (int i = pos; i < limit; i++)
+            if (c == buf.get(i))
+                return i;
+        throw error(pos, "缺少字符'" + c + "'");
+    }
+
+    /**
+     * 跳过空白字符
+     *
+     * @param pos 开始位置
+     * @return int 第一个非空白字符位置
+     */
+    int skipWhitespace(int pos) {
+        while (pos < limit && isWhitespace(buf.get(pos)))
+            pos++;
+        return pos;
+    }
+
+    /**
+     * 跳过开始标签, 不解析属性
+     *
+     * @param pos 标签 '&lt;' 所在位置
+     * @return int 标签结束后的位置
+     */
+    private int skipTag(int pos) {
+        for (int i = pos + 1; i < limit; i++) {
+            byte b = buf.get(i);
+            if ('"' == b || '\'' == b) {
+                i = indexOf(i + 1, (char) b);
+            } else if ('>' == b) {
+                selfClosed = '/' == buf.get(i - 1);
+                return i + 1;
+            }
+        }
+        throw error(pos, "标签未结束");
+    }
+
+    /**
+     * 跳过DOCTYPE声明(包括内部子集)
+     *
+     * @param pos 声明名称之后的位置
+     * @return int 声明结束后的位置
+     */
+    private int skipDoctype(int pos) {
+        int depth = 0;
+        for (int i = pos; i < limit; i++) {
+            byte b = buf.get(i);
+            if ('"' == b || '\'' == b)
+                i = indexOf(i + 1, (char) b);
+            else if ('[' == b)
+                depth++;
+            else if (']' == b)
+                depth--;
+            else if ('>' == b && 0 == depth)
+                return i + 1;
+        }
+        throw error(pos, "DOCTYPE未结束");
+    }
+
+    /**
+     * 校验XML声明中的编码
+     *
+     * @param pos 声明开始位置
+     */
+    private void checkDeclaredEncoding(int pos) {
+        int end = indexOf(pos, "?>");
+        int idx = indexOf(pos, end, "encoding");
+        if (0 > idx)
+            return;
+
+        int quoteStart = skipWhitespace(skipWhitespace(idx + 8) + 1);
+        byte quote = byteAt(quoteStart);
+        int quoteEnd = indexOf(quoteStart + 1, (char) quote);
+        String encoding = decode(quoteStart + 1, quoteEnd, false, true);
+        if (!isUtf8Compatible(encoding))
+            throw new UnsupportedOperationException("只支持UTF-8编码, 文件声明编码为[" + encoding + "]");
+    }
+
+    /**
+     * 校验编码是否与UTF-8兼容
+     *
+     * @param encoding 编码名称
+     * @return boolean true-兼容
+     */
+    static boolean isUtf8Compatible(String encoding) {
+        return null == encoding
+                || "UTF-8".equalsIgnoreCase(encoding)
+                || "UTF8".equalsIgnoreCase(encoding)
+                || "US-ASCII".equalsIgnoreCase(encoding)
+                || "ASCII".equalsIgnoreCase(encoding);
+    }
+
+    /**
+     * 扫描名称
+     *
+     * @param pos 名称开始位置
+     * @return int 名称结束位置
+     */
+    private int scanName(int pos) {
+        while (pos < limit) {
+            byte b = buf.get(pos);
+            if (isWhitespace(b) || '>' == b || '/' == b || '=' == b)
+                break;
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * 获取本地名称(去掉命名空间前缀)
+     *
+     * @param start 名称开始位置
+     * @param end   名称结束位置
+     * @return String 本地名称
+     */
+    private String localName(int start, int end) {
+        for (int i = end - 1; i > start; i--) {
+            if (':' == buf.get(i)) {
+                start = i + 1;
+                break;
+            }
+        }
+        return names.get(buf, start, end);
+    }
+
+    /**
+     * 是否命名空间声明(xmlns 或 xmlns:*)
+     */
+    private boolean isNamespaceDeclaration(int start, int end) {
+        int len = end - start;
+        return startsWith(start, "xmlns") && (5 == len || ':' == buf.get(start + 5));
+    }
+
+    /**
+     * 解码文本, 处理实体引用和换行
+     *
+     * @param start     开始位置
+     * @param end       结束位置
+     * @param entities  是否解析实体引用
+     * @param attribute 是否属性值(属性值中的制表/换行/回车转换为空格)
+     * @return String 文本
+     */
+    private String decode(int start, int end, boolean entities, boolean attribute) {
+        int n = decodeChars(start, end, entities, attribute);
+        return new String(chars, 0, n);
+    }
+
+    /**
+     * 直接把UTF-8字节解码为字符写入 {@link #chars}, 同时处理实体引用和换行, 不经过 CharsetDecoder
+     *
+     * @param start     开始位置
+     * @param end       结束位置
+     * @param entities  是否解析实体引用
+     * @param attribute 是否属性值(属性值中的制表/换行/回车转换为空格)
+     * @return int 字符个数
+     */
+    private int decodeChars(int start, int end, boolean entities, boolean attribute) {
+        // UTF-8字节数总是不小于字符数, 实体和换行转换后长度只会变短
+        if (chars.length < end - start)
+            chars = new char[Math.max(end - start, chars.length << 1)];
+
+        char[] out = chars;
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            int b = buf.get(i);
+            if (0 <= b) {
+                if ('&' == b && entities) {
+                    int semi = indexOf(i, ';');
+                    if (semi >= end)
+                        throw error(i, "实体引用未结束");
+                    n += Character.toChars(resolveEntity(i + 1, semi), out, n);
+                    i = semi;
+                } else if ('\r' == b) {
+                    // \r\n 和单独的 \r 都视为一个换行
+                    if (i + 1 < end && '\n' == buf.get(i + 1))
+                        i++;
+                    out[n++] = attribute ? ' ' : '\n';
+                } else if (attribute && ('\n' == b || '\t' == b)) {
+                    out[n++] = ' ';
+                } else {
+                    out[n++] = (char) b;
+                }
+                continue;
+            }
+
+            // 多字节字符
+            int cp;
+            int extra;
+            if (0xC0 == (b & 0xE0)) {
+                cp = b & 0x1F;
+                extra = 1;
+            } else if (0xE0 == (b & 0xF0)) {
+                cp = b & 0x0F;
+                extra = 2;
+            } else if (0xF0 == (b & 0xF8)) {
+                cp = b & 0x07;
+                extra = 3;
+            } else {
+                out[n++] = '\uFFFD';
+                continue;
+            }
+
+            if (i + extra >= end) {
+                out[n++] = '\uFFFD';
+                break;
+            }
+            boolean malformed = false;
+            for (int k = 1; k <= extra; k++) {
+                int cb = buf.get(i + k);
+                if (0x80 != (cb & 0xC0)) {
+                    malformed = true;
+                    break;
+                }
+                cp = (cp << 6) | (cb & 0x3F);
+            }
+            if (malformed || Character.MAX_CODE_POINT < cp) {
+                out[n++] = '\uFFFD';
+                continue;
+            }
+            i += extra;
+            n += Character.toChars(cp, out, n);
+        }
+        return n;
+    }
+
+    /**
+     * 解析实体引用
+     *
+     * @param start '&amp;' 之后的位置
+     * @param end   ';' 所在位置
+     * @return int 字符码点
+     */
+    private int resolveEntity(int start, int end) {
+        if ('#' == byteAt(start)) {
+            boolean hex = 'x' == byteAt(start + 1);
+            int i = hex ? start + 2 : start + 1;
+            if (i == end)
+                throw error(start, "无效的字符引用");
+
+            int codePoint = 0;
+            for (; i < end; i++) {
+                int digit = Character.digit((char) buf.get(i), hex ? 16 : 10);
+                if (0 > digit)
+                    throw error(start, "无效的字符引用");
+                codePoint = codePoint * (hex ? 16 : 10) + digit;
+                if (Character.MAX_CODE_POINT < codePoint)
+                    throw error(start, "无效的字符引用");
+            }
+            return codePoint;
+        }
+
+        String name = names.get(buf, start, end);
+        switch (name) {
+            case "lt":
+                return '<';
+            case "gt":
+                return '>';
+            case "amp":
+                return '&';
+            case "quot":
+                return '"';
+            case "apos":
+                return '\'';
+            default:
+                throw new UnsupportedOperationException("不支持的实体引用[&" + name + ";]");
+        }
+    }
+
+    private int skipTo(int pos, String terminator) {
+        return indexOf(pos, terminator) + terminator.length();
+    }
+
+    private int indexOf(int pos, String target) {
+        int idx = indexOf(pos, limit, target);
+        if (0 > idx)
+            throw error(pos, "缺少[" + target + "]");
+        return idx;
+    }
+
+    private int indexOf(int pos, int end, String target) {
+        for (int i = pos, last = end - target.length(); i <= last; i++)
+            if (startsWith(i, target))
+                return i;
+        return -1;
+    }
+
+    private boolean startsWith(int pos, String target) {
+        if (pos + target.length() > limit)
+            return false;
+        for (int i = 0; i < target.length(); i++)
+            if (target.charAt(i) != buf.get(pos + i))
+                return false;
+        return true;
+    }
+
+    private void expect(int pos, char c) {
+        if (c != byteAt(pos))
+            throw error(pos, "期望字符'" + c + "'");
+    }
+
+    private byte byteAt(int pos) {
+        return pos < limit ? buf.get(pos) : 0;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return ' ' == b || '\n' == b || '\r' == b || '\t' == b;
+    }
+
+    private RuntimeException error(int pos, String message) {
+        return new RuntimeException("XML格式错误[pos=" + (base + pos) + "]: " + message);
+    }
+}
@@ -1,12 +1,12 @@
 package org.yong.util.file.xml.fmt.impl;
 
-import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.yong.util.common.StringUtil;
 import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLVisitResult;
+import org.yong.util.file.xml.XMLVisitor;
 import org.yong.util.file.xml.fmt.XMLObjectFormatter;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -63,58 +63,56 @@ public class DefaultXMLObjectFormatter implements XMLObjectFormatter {
     }
 
     /**
-     * 格式化指定节点
+     * 格式化指定节点, 使用 {@link XMLObject#walk(XMLVisitor)} 遍历, 嵌套层次不受线程栈大小限制
      *
      * @param xmlObject         节点对象
      * @param contentRepository 用于保存格式化内容的容器
      * @param lineSeparator     行分割符
      */
     private void format(XMLObject xmlObject, StringBuilder contentRepository, String lineSeparator) {
-        // 获取缩进占位符, retract 与 nodeLevel 相关
-        String retract = createRetract();
-
-        // 构建标签头, 总是以空格结尾: "[retract] + <[tagName] "
-        contentRepository.append(retract).append(createTagStart(xmlObject));
-
-        // 构建标签属性 : "[attrName='value'] [attrName='value'] ... >"
-        contentRepository.append(createAttrs(xmlObject));
-
-        // 追加行结束符号 : [NEW_LINE]
-        contentRepository.append(lineSeparator);
-
-        // 构建标签体, [retract] + [content] + [NEW_LINE]
-        String content = xmlObject.getContent();
-        contentRepository.append(createContent(content));
-
-
-        // @version 1.3
-        boolean hasChildren = xmlObject.hasEffectiveChildren();
-        if (!hasChildren && StringUtil.isEmpty(content, true)) {
-            // 在最后一个 ">" 前面插入 "/", 使标签闭合
-            int idx = contentRepository.lastIndexOf(">");
-            contentRepository.insert(idx, " /");
-            // 结束程序
-            return;
-        }
-
-        // 处理子标签
-        Map<String, List<XMLObject>> childTags = xmlObject.getChildTags();
-        for (Entry<String, List<XMLObject>> me : childTags.entrySet()) {
-            // 标签层级 : nodeLevel+1
-            this.nodeLevel++;
-
-            List<XMLObject> childrenOfEach = me.getValue();
-            for (XMLObject child : childrenOfEach) {
-                // 递归构建子标签
-                format(child, contentRepository, lineSeparator);
+        int baseLevel = this.nodeLevel;
+        xmlObject.walk(new XMLVisitor() {
+            @Override
+            public XMLVisitResult enter(XMLObject node, int depth) {
+                // 标签层级 : 起始层级 + 遍历深度
+                nodeLevel = baseLevel + depth;
+
+                // 获取缩进占位符, retract 与 nodeLevel 相关
+                String retract = createRetract();
+
+                // 构建标签头, 总是以空格结尾: "[retract] + <[tagName] "
+                contentRepository.append(retract).append(createTagStart(node));
+
+                // 构建标签属性 : "[attrName='value'] [attrName='value'] ... >"
+                contentRepository.append(createAttrs(node));
+
+                // 追加行结束符号 : [NEW_LINE]
+                contentRepository.append(lineSeparator);
+
+                // 构建标签体, [retract] + [content] + [NEW_LINE]
+                String content = node.getContent();
+                contentRepository.append(createContent(content));
+
+                // @version 1.3
+                boolean hasChildren = node.hasEffectiveChildren();
+                if (!hasChildren && StringUtil.isEmpty(content, true)) {
+                    // 在最后一个 ">" 前面插入 "/", 使标签闭合, 不再处理标签尾
+                    int idx = contentRepository.lastIndexOf(">");
+                    contentRepository.insert(idx, " /");
+                    return XMLVisitResult.SKIP_SUBTREE;
+                }
+                return XMLVisitResult.CONTINUE;
             }
 
-            // 标签层级 : nodeLevel-1
-            this.nodeLevel--;
-        }
-
-        // 构建标签尾 "[retract] + </[tagName]>"
-        contentRepository.append(retract).append(createTagEnd(xmlObject)).append(lineSeparator);
+            @Override
+            public XMLVisitResult leave(XMLObject node, int depth) {
+                // 构建标签尾 "[retract] + </[tagName]>"
+                nodeLevel = baseLevel + depth;
+                contentRepository.append(createRetract()).append(createTagEnd(node)).append(lineSeparator);
+                return XMLVisitResult.CONTINUE;
+            }
+        });
+        this.nodeLevel = baseLevel;
     }
 
     /**
@@ -157,8 +155,8 @@ public class DefaultXMLObjectFormatter implements XMLObjectFormatter {
         StringBuilder attrContent = new StringBuilder();
 
         // 遍历所有属性
-        Map<String, String> attrs = xmlObject.getAttrs();
-        if (MapUtils.isNotEmpty(attrs)) {
+        if (xmlObject.hasAttrs()) {
+            Map<String, String> attrs = xmlObject.getAttrs();
             for (Entry<String, String> me : attrs.entrySet()) {
 
                 String attrName = StringUtils.trimToEmpty(me.getKey());
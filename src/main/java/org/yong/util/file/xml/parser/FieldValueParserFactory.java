@@ -14,6 +14,11 @@ public class FieldValueParserFactory {
     private static final HashMap<Class<?>, SimpleValueParser<?>> STORE = new HashMap<>();
     private static final SimpleValueParser<?> DEFAULT = new DefaultSimpleValueParser();
 
+    /**
+     * 注册表版本, 每次注册解析器后递增, 用于使缓存的解析器失效
+     */
+    private static volatile int version;
+
     /**
      * 通过类型获取解析器
      *
@@ -32,8 +37,19 @@ public class FieldValueParserFactory {
      */
     public static <T> void reg(SimpleValueParser<T> parser) {
         Class<T> preciseType = parser.getPreciseType();
-        if (null != preciseType)
+        if (null != preciseType) {
             STORE.put(preciseType, parser);
+            version++;
+        }
+    }
+
+    /**
+     * 获取注册表版本, 注册解析器后版本号变化
+     *
+     * @return int 注册表版本
+     */
+    public static int getVersion() {
+        return version;
     }
 
 }
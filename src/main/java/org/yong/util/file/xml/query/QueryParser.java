@@ -0,0 +1,354 @@
+package org.yong.util.file.xml.query;
+
+import com.google.common.collect.Lists;
+import org.yong.util.file.xml.XMLObject;
+
+import java.util.List;
+
+/**
+ * 查询表达式解析器, 支持的语法:
+ * <pre>
+ * Query     := 'count(' Path ')' | Path
+ * Path      := ('/' | '//')? Step (('/' | '//') Step)*
+ * Step      := '.' | '..' | (Name | '*') ('[' Expr ']')*
+ * Expr      := And ('or' And)*
+ * And       := Primary ('and' Primary)*
+ * Primary   := Number | 'last()' | '@' Name (Op Literal)? | 'text()' Op Literal | Name (Op Literal)? | '(' Expr ')'
+ * Op        := '=' | '!='
+ * </pre>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+final class QueryParser {
+
+    private final String expression;
+
+    private int pos;
+
+    private QueryParser(String expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * 解析查询表达式
+     *
+     * @param expression 查询表达式, 不能为空
+     * @return XMLQuery 查询计划
+     * @throws IllegalArgumentException 表达式格式错误时
+     */
+    static XMLQuery parse(String expression) {
+        return new QueryParser(expression).parseQuery();
+    }
+
+    private XMLQuery parseQuery() {
+        skipSpaces();
+        boolean count = false;
+        if (expression.startsWith("count(", pos)) {
+            count = true;
+            pos += "count(".length();
+        }
+
+        skipSpaces();
+        boolean absolute = false;
+        Step.Axis axis = Step.Axis.CHILD;
+        if (expression.startsWith("//", pos)) {
+            absolute = true;
+            axis = Step.Axis.DESCENDANT;
+            pos += 2;
+        } else if (peek('/')) {
+            absolute = true;
+            pos++;
+        }
+
+        List<Step> steps = Lists.newArrayList();
+        if (!(absolute && Step.Axis.CHILD == axis && atPathEnd())) {
+            while (true) {
+                steps.add(parseStep(axis));
+                if (expression.startsWith("//", pos)) {
+                    axis = Step.Axis.DESCENDANT;
+                    pos += 2;
+                } else if (peek('/')) {
+                    axis = Step.Axis.CHILD;
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+        }
+
+        skipSpaces();
+        if (count) {
+            expect(')');
+            skipSpaces();
+        }
+        if (pos != expression.length())
+            throw error("无法识别的内容");
+
+        if (absolute && !steps.isEmpty() && steps.get(0).axis != Step.Axis.CHILD && steps.get(0).axis != Step.Axis.DESCENDANT)
+            throw error("绝对路径不能以 . 或 .. 开始");
+        return new XMLQuery(expression, absolute, count, steps.toArray(new Step[0]));
+    }
+
+    private Step parseStep(Step.Axis axis) {
+        skipSpaces();
+        if (expression.startsWith("..", pos)) {
+            if (Step.Axis.CHILD != axis)
+                throw error("// 之后不支持 ..");
+            pos += 2;
+            return new Step(Step.Axis.PARENT, null, new QueryPredicate[0]);
+        }
+        if (peek('.')) {
+            if (Step.Axis.CHILD != axis)
+                throw error("// 之后不支持 .");
+            pos++;
+            return new Step(Step.Axis.SELF, null, new QueryPredicate[0]);
+        }
+
+        String tagName;
+        if (peek('*')) {
+            pos++;
+            tagName = null;
+        } else {
+            tagName = parseName();
+        }
+
+        List<QueryPredicate> predicates = Lists.newArrayList();
+        while (true) {
+            skipSpaces();
+            if (!peek('['))
+                break;
+            pos++;
+            QueryPredicate predicate = parseOr();
+            skipSpaces();
+            expect(']');
+            if (predicate.isSizeRequired() && !predicates.isEmpty())
+                throw error("last() 只能用于第一个谓词");
+            predicates.add(predicate);
+        }
+        return new Step(axis, tagName, predicates.toArray(new QueryPredicate[0]));
+    }
+
+    private QueryPredicate parseOr() {
+        QueryPredicate left = parseAnd();
+        while (keyword("or")) {
+            QueryPredicate l = left;
+            QueryPredicate r = parseAnd();
+            left = new Compound(l, r, false);
+        }
+        return left;
+    }
+
+    private QueryPredicate parseAnd() {
+        QueryPredicate left = parsePrimary();
+        while (keyword("and")) {
+            QueryPredicate l = left;
+            QueryPredicate r = parsePrimary();
+            left = new Compound(l, r, true);
+        }
+        return left;
+    }
+
+    private QueryPredicate parsePrimary() {
+        skipSpaces();
+        if (peek('(')) {
+            pos++;
+            QueryPredicate predicate = parseOr();
+            skipSpaces();
+            expect(')');
+            return predicate;
+        }
+
+        // 位置
+        if (pos < expression.length() && Character.isDigit(expression.charAt(pos))) {
+            int start = pos;
+            while (pos < expression.length() && Character.isDigit(expression.charAt(pos)))
+                pos++;
+            int position = Integer.parseInt(expression.substring(start, pos));
+            return (node, p, size) -> p == position;
+        }
+
+        if (expression.startsWith("last()", pos)) {
+            pos += "last()".length();
+            return new QueryPredicate() {
+                @Override
+                public boolean test(XMLObject node, int position, int size) {
+                    return position == size;
+                }
+
+                @Override
+                public boolean isSizeRequired() {
+                    return true;
+                }
+            };
+        }
+
+        // 属性
+        if (peek('@')) {
+            pos++;
+            String attrName = parseName();
+            int op = parseOperator();
+            if (0 == op)
+                return (node, p, size) -> node.hasAttr(attrName);
+
+            String value = parseLiteral();
+            boolean equal = 1 == op;
+            return (node, p, size) -> {
+                String attrValue = node.hasAttr(attrName) ? node.getAttrs().get(attrName) : null;
+                return null != attrValue && equal == value.equals(attrValue);
+            };
+        }
+
+        // 标签体
+        if (expression.startsWith("text()", pos)) {
+            pos += "text()".length();
+            int op = parseOperator();
+            if (0 == op)
+                throw error("text() 之后需要比较运算符");
+
+            String value = parseLiteral();
+            boolean equal = 1 == op;
+            return (node, p, size) -> {
+                String content = node.getContent();
+                return null != content && equal == value.equals(content);
+            };
+        }
+
+        // 子标签
+        String childName = parseName();
+        int op = parseOperator();
+        if (0 == op) {
+            return (node, p, size) -> {
+                List<XMLObject> children = node.getChildTags().get(childName);
+                return null != children && !children.isEmpty();
+            };
+        }
+
+        String value = parseLiteral();
+        boolean equal = 1 == op;
+        return (node, p, size) -> {
+            List<XMLObject> children = node.getChildTags().get(childName);
+            if (null == children)
+                return false;
+            for (XMLObject child : children) {
+                String content = child.getContent();
+                if (null != content && equal == value.equals(content))
+                    return true;
+            }
+            return false;
+        };
+    }
+
+    /**
+     * 解析比较运算符
+     *
+     * @return int 0-没有运算符, 1-等于, 2-不等于
+     */
+    private int parseOperator() {
+        skipSpaces();
+        if (peek('=')) {
+            pos++;
+            return 1;
+        }
+        if (expression.startsWith("!=", pos)) {
+            pos += 2;
+            return 2;
+        }
+        return 0;
+    }
+
+    private String parseLiteral() {
+        skipSpaces();
+        if (!peek('\'') && !peek('"'))
+            throw error("需要字符串常量");
+
+        char quote = expression.charAt(pos++);
+        int end = expression.indexOf(quote, pos);
+        if (-1 == end)
+            throw error("字符串常量未结束");
+
+        String value = expression.substring(pos, end);
+        pos = end + 1;
+        return value;
+    }
+
+    private String parseName() {
+        skipSpaces();
+        int start = pos;
+        while (pos < expression.length()) {
+            char c = expression.charAt(pos);
+            boolean nameChar = Character.isLetterOrDigit(c) || '_' == c || ':' == c
+                    || (pos > start && ('-' == c || '.' == c));
+            if (!nameChar)
+                break;
+            pos++;
+        }
+        if (start == pos)
+            throw error("需要标签名或属性名");
+        return expression.substring(start, pos);
+    }
+
+    private boolean keyword(String keyword) {
+        skipSpaces();
+        int end = pos + keyword.length();
+        if (!expression.startsWith(keyword, pos) || end >= expression.length() || !Character.isWhitespace(expression.charAt(end)))
+            return false;
+        pos = end;
+        return true;
+    }
+
+    private boolean atPathEnd() {
+        skipSpaces();
+        return pos == expression.length() || peek(')');
+    }
+
+    private boolean peek(char c) {
+        return pos < expression.length() && expression.charAt(pos) == c;
+    }
+
+    private void expect(char c) {
+        if (!peek(c))
+            throw error("需要 '" + c + "'");
+        pos++;
+    }
+
+    private void skipSpaces() {
+        while (pos < expression.length() && Character.isWhitespace(expression.charAt(pos)))
+            pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("查询表达式[" + expression + "]第" + pos + "个字符: " + message);
+    }
+
+    /**
+     * and/or 组合谓词
+     */
+    private static final class Compound implements QueryPredicate {
+
+        private final QueryPredicate left;
+
+        private final QueryPredicate right;
+
+        private final boolean and;
+
+        Compound(QueryPredicate left, QueryPredicate right, boolean and) {
+            this.left = left;
+            this.right = right;
+            this.and = and;
+        }
+
+        @Override
+        public boolean test(XMLObject node, int position, int size) {
+            return and
+                    ? left.test(node, position, size) && right.test(node, position, size)
+                    : left.test(node, position, size) || right.test(node, position, size);
+        }
+
+        @Override
+        public boolean isSizeRequired() {
+            return left.isSizeRequired() || right.isSizeRequired();
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package org.yong.util.file.xml.query;
+
+import org.yong.util.file.xml.XMLObject;
+
+/**
+ * 查询步骤谓词
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+interface QueryPredicate {
+
+    /**
+     * 验证节点
+     *
+     * @param node     候选节点
+     * @param position 节点在候选集合中的位置, 从1开始
+     * @param size     候选集合大小, 只有 {@link #isSizeRequired()} 为true时有效
+     * @return boolean true-保留, false-丢弃
+     */
+    boolean test(XMLObject node, int position, int size);
+
+    /**
+     * 是否需要候选集合大小, 如 last()
+     *
+     * @return boolean true-需要, false-不需要
+     */
+    default boolean isSizeRequired() {
+        return false;
+    }
+}
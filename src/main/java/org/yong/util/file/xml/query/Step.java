@@ -0,0 +1,80 @@
+package org.yong.util.file.xml.query;
+
+import org.yong.util.file.xml.XMLObject;
+
+/**
+ * 查询步骤: 轴 + 标签名 + 谓词
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+final class Step {
+
+    /**
+     * 轴
+     */
+    enum Axis {
+        /**
+         * 子节点 /name
+         */
+        CHILD,
+        /**
+         * 后代节点 //name, 即 descendant-or-self::node()/child::name
+         */
+        DESCENDANT,
+        /**
+         * 当前节点 .
+         */
+        SELF,
+        /**
+         * 父节点 ..
+         */
+        PARENT
+    }
+
+    final Axis axis;
+
+    /**
+     * 标签名, null表示任意标签
+     */
+    final String tagName;
+
+    final QueryPredicate[] predicates;
+
+    Step(Axis axis, String tagName, QueryPredicate[] predicates) {
+        this.axis = axis;
+        this.tagName = tagName;
+        this.predicates = predicates;
+    }
+
+    /**
+     * 标签名是否匹配
+     *
+     * @param node 节点
+     * @return boolean true-匹配
+     */
+    boolean matchesName(XMLObject node) {
+        return null == tagName || tagName.equals(node.getTagName());
+    }
+
+    /**
+     * 依次验证所有谓词, 位置在通过前一个谓词的候选节点中计数
+     *
+     * @param node     候选节点
+     * @param counters 每个谓词的位置计数器, 每组候选节点开始前清零
+     * @param size     候选集合大小
+     * @return boolean true-通过所有谓词
+     */
+    boolean accept(XMLObject node, int[] counters, int size) {
+        for (int i = 0; i < predicates.length; i++) {
+            if (!predicates[i].test(node, ++counters[i], size))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return axis + "::" + (null == tagName ? "*" : tagName) + "[" + predicates.length + "]";
+    }
+}
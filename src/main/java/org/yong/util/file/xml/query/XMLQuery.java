@@ -0,0 +1,313 @@
+package org.yong.util.file.xml.query;
+
+import com.google.common.collect.Lists;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLVisitResult;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * XPath子集查询, 表达式编译后缓存查询计划, 可在多线程间共享.<br>
+ * 支持: 绝对/相对路径, 子节点(/)和后代节点(//)轴, . 和 .., 通配符 *,
+ * 位置谓词 [n] 和 [last()], 属性谓词 [@attr] [@attr='v'] [@attr!='v'],
+ * 标签体谓词 [text()='v'], 子标签谓词 [child] [child='v'], 谓词中的 and/or, 以及 count(path).
+ * 多个谓词依次过滤, 位置在通过前一个谓词的节点中计数.
+ * <p>
+ * 求值时沿查询步骤逐个节点向下传递, 不为中间步骤创建节点集合; 只包含一个 // 且不包含 .. 时结果按文档顺序排列,
+ * 否则按遍历顺序排列并去除重复节点
+ *
+ * <pre>
+ * List&lt;XMLObject&gt; stations = XMLQuery.compile("//TourStation[@speed='200'][1]").select(root);
+ * int count = XMLQuery.compile("count(/TourReport/TourTask//TourAction)").count(root);
+ * </pre>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ * @see XMLObject#query(String)
+ */
+public final class XMLQuery {
+
+    /**
+     * 查询计划缓存上限, 超过后清空
+     */
+    private static final int MAX_CACHED_PLANS = 1024;
+
+    /**
+     * 查询计划缓存
+     */
+    private static final Map<String, XMLQuery> PLANS = new ConcurrentHashMap<>();
+
+    private final String expression;
+
+    /**
+     * 是否从顶层节点开始
+     */
+    private final boolean absolute;
+
+    /**
+     * 是否 count() 表达式
+     */
+    private final boolean countOnly;
+
+    private final Step[] steps;
+
+    /**
+     * 结果是否可能包含重复节点
+     */
+    private final boolean distinct;
+
+    XMLQuery(String expression, boolean absolute, boolean countOnly, Step[] steps) {
+        this.expression = expression;
+        this.absolute = absolute;
+        this.countOnly = countOnly;
+        this.steps = steps;
+
+        int descendants = 0;
+        boolean parent = false;
+        for (Step step : steps) {
+            descendants += Step.Axis.DESCENDANT == step.axis ? 1 : 0;
+            parent |= Step.Axis.PARENT == step.axis;
+        }
+        this.distinct = parent || 1 < descendants;
+    }
+
+    /**
+     * 编译查询表达式, 相同表达式返回缓存的查询计划
+     *
+     * @param expression 查询表达式
+     * @return XMLQuery 查询计划
+     * @throws IllegalArgumentException 表达式为空或格式错误时
+     */
+    public static XMLQuery compile(String expression) {
+        if (null == expression || expression.trim().isEmpty())
+            throw new IllegalArgumentException("查询表达式不能为空");
+
+        XMLQuery query = PLANS.get(expression);
+        if (null != query)
+            return query;
+
+        query = QueryParser.parse(expression);
+        if (PLANS.size() >= MAX_CACHED_PLANS)
+            PLANS.clear();
+        PLANS.put(expression, query);
+        return query;
+    }
+
+    /**
+     * 查询所有匹配节点
+     *
+     * @param context 上下文节点, 绝对路径从其顶层节点开始
+     * @return List&lt;XMLObject&gt; 匹配节点
+     * @throws UnsupportedOperationException count() 表达式
+     */
+    public List<XMLObject> select(XMLObject context) {
+        checkNotCount();
+        Evaluation evaluation = new Evaluation(Lists.newArrayList(), false);
+        evaluate(evaluation, context);
+        return evaluation.result;
+    }
+
+    /**
+     * 查询第一个匹配节点, 找到后立即停止
+     *
+     * @param context 上下文节点
+     * @return XMLObject 第一个匹配节点, 没有时返回null
+     * @throws UnsupportedOperationException count() 表达式
+     */
+    public XMLObject selectFirst(XMLObject context) {
+        checkNotCount();
+        Evaluation evaluation = new Evaluation(Lists.newArrayListWithCapacity(1), true);
+        evaluate(evaluation, context);
+        return evaluation.result.isEmpty() ? null : evaluation.result.get(0);
+    }
+
+    /**
+     * 统计匹配节点数量, 不保存匹配节点; count(path) 和普通路径表达式都可以使用
+     *
+     * @param context 上下文节点
+     * @return int 匹配节点数量
+     */
+    public int count(XMLObject context) {
+        Evaluation evaluation = new Evaluation(null, false);
+        evaluate(evaluation, context);
+        return evaluation.count;
+    }
+
+    /**
+     * 是否 count() 表达式
+     *
+     * @return boolean true-是
+     */
+    public boolean isCount() {
+        return countOnly;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private void checkNotCount() {
+        if (countOnly)
+            throw new UnsupportedOperationException("count()表达式只能通过 count(XMLObject) 获取结果");
+    }
+
+    private void evaluate(Evaluation evaluation, XMLObject context) {
+        if (!absolute) {
+            step(evaluation, 0, context);
+            return;
+        }
+
+        XMLObject top = context;
+        while (null != top.getParent())
+            top = top.getParent();
+        if (0 == steps.length) {
+            evaluation.accept(top);
+            return;
+        }
+
+        // 顶层节点是文档的唯一子节点
+        Step first = steps[0];
+        int[] counters = evaluation.counters(0);
+        if (first.matchesName(top) && first.accept(top, counters, 1))
+            step(evaluation, 1, top);
+        if (Step.Axis.DESCENDANT == first.axis)
+            descend(evaluation, 0, top);
+    }
+
+    /**
+     * 对上下文节点执行第index个步骤
+     */
+    private void step(Evaluation evaluation, int index, XMLObject context) {
+        if (evaluation.stopped)
+            return;
+        if (index == steps.length) {
+            evaluation.accept(context);
+            return;
+        }
+
+        Step step = steps[index];
+        switch (step.axis) {
+            case CHILD:
+                children(evaluation, index, context);
+                break;
+            case DESCENDANT:
+                descend(evaluation, index, context);
+                break;
+            case SELF:
+                if (step.accept(context, evaluation.counters(index), 1))
+                    step(evaluation, index + 1, context);
+                break;
+            case PARENT:
+                XMLObject parent = context.getParent();
+                if (null != parent && step.accept(parent, evaluation.counters(index), 1))
+                    step(evaluation, index + 1, parent);
+                break;
+        }
+    }
+
+    /**
+     * 后代轴: 对上下文节点及其所有后代节点执行子节点步骤
+     */
+    private void descend(Evaluation evaluation, int index, XMLObject node) {
+        node.walk((descendant, depth) -> {
+            children(evaluation, index, descendant);
+            return evaluation.stopped ? XMLVisitResult.TERMINATE : XMLVisitResult.CONTINUE;
+        });
+    }
+
+    /**
+     * 子节点步骤: 一个父节点的所有候选子节点为一组, 位置在组内计数
+     */
+    private void children(Evaluation evaluation, int index, XMLObject parent) {
+        Step step = steps[index];
+        Map<String, List<XMLObject>> childTags = parent.getChildTags();
+        int[] counters = evaluation.counters(index);
+
+        if (null != step.tagName) {
+            List<XMLObject> group = childTags.get(step.tagName);
+            if (null == group)
+                return;
+
+            int size = group.size();
+            for (int i = 0; i < size && !evaluation.stopped; i++) {
+                XMLObject child = group.get(i);
+                if (step.accept(child, counters, size))
+                    step(evaluation, index + 1, child);
+            }
+            return;
+        }
+
+        int size = 0;
+        if (0 < step.predicates.length && step.predicates[0].isSizeRequired()) {
+            for (List<XMLObject> group : childTags.values())
+                size += group.size();
+        }
+        for (List<XMLObject> group : childTags.values()) {
+            for (int i = 0; i < group.size() && !evaluation.stopped; i++) {
+                XMLObject child = group.get(i);
+                if (step.accept(child, counters, size))
+                    step(evaluation, index + 1, child);
+            }
+        }
+    }
+
+    /**
+     * 一次求值的状态
+     */
+    private final class Evaluation {
+
+        /**
+         * 匹配节点, 只统计数量时为null
+         */
+        private final List<XMLObject> result;
+
+        /**
+         * 找到第一个匹配节点后停止
+         */
+        private final boolean firstOnly;
+
+        /**
+         * 每个步骤的谓词位置计数器
+         */
+        private final int[][] counters = new int[steps.length][];
+
+        /**
+         * 已匹配节点, 只在结果可能重复时使用
+         */
+        private final Set<XMLObject> seen = distinct ? Collections.newSetFromMap(new IdentityHashMap<>()) : null;
+
+        private int count;
+
+        private boolean stopped;
+
+        Evaluation(List<XMLObject> result, boolean firstOnly) {
+            this.result = result;
+            this.firstOnly = firstOnly;
+        }
+
+        /**
+         * 获取清零后的计数器
+         */
+        int[] counters(int index) {
+            int[] current = counters[index];
+            if (null == current)
+                return counters[index] = new int[steps[index].predicates.length];
+
+            Arrays.fill(current, 0);
+            return current;
+        }
+
+        void accept(XMLObject node) {
+            if (null != seen && !seen.add(node))
+                return;
+
+            count++;
+            if (null != result)
+                result.add(node);
+            stopped = firstOnly;
+        }
+    }
+
+}
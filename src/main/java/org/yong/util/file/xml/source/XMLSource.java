@@ -0,0 +1,64 @@
+package org.yong.util.file.xml.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * XML数据来源. 字节来源通过 {@link #openStream()} 读取, 字符来源通过 {@link #openReader()} 读取,
+ * 两者只会有一个返回有效值.
+ * <p>
+ * 解析器负责关闭自己打开的流; 调用者传入的流/Reader仍由调用者负责关闭.
+ * </p>
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ * @see XMLSourceFactory
+ */
+public interface XMLSource {
+
+    /**
+     * 打开字节输入流
+     *
+     * @return InputStream 字节输入流, 字符来源返回null
+     */
+    InputStream openStream() throws IOException;
+
+    /**
+     * 打开字符输入流
+     *
+     * @return Reader 字符输入流, 字节来源返回null
+     */
+    default Reader openReader() throws IOException {
+        return null;
+    }
+
+    /**
+     * 以缓冲区形式获取全部字节内容, 供直接扫描字节的解析模式使用. 文件来源使用内存映射, 不会复制文件内容
+     *
+     * @return ByteBuffer 从0到limit为全部内容, 不支持时返回null
+     */
+    default ByteBuffer getByteBuffer() throws IOException {
+        return null;
+    }
+
+    /**
+     * 获取字节来源的编码
+     *
+     * @return String 编码, 为null时由XML声明决定
+     */
+    default String getEncoding() {
+        return null;
+    }
+
+    /**
+     * 获取来源标识, 用于解析相对路径(DTD等)和错误提示
+     *
+     * @return String 来源标识, 可以为null
+     */
+    default String getSystemId() {
+        return null;
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.yong.util.file.xml.source;
+
+import org.yong.util.file.xml.source.impl.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link XMLSource}数据来源工厂
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class XMLSourceFactory {
+
+    /**
+     * 文件路径来源
+     *
+     * @param path     文件路径
+     * @param encoding 文件编码, 为null时由XML声明决定
+     * @return XMLSource 数据来源
+     */
+    public static XMLSource fromPath(String path, String encoding) {
+        return new FileXMLSource(path, encoding);
+    }
+
+    /**
+     * 文件来源
+     *
+     * @param file     文件
+     * @param encoding 文件编码, 为null时由XML声明决定
+     * @return XMLSource 数据来源
+     */
+    public static XMLSource fromFile(File file, String encoding) {
+        return new FileXMLSource(file, encoding);
+    }
+
+    /**
+     * 字节流来源, 只能读取一次, 解析器不会关闭该流
+     *
+     * @param in       字节流
+     * @param encoding 编码, 为null时由XML声明决定
+     * @return XMLSource 数据来源
+     */
+    public static XMLSource fromStream(InputStream in, String encoding) {
+        return new StreamXMLSource(in, encoding);
+    }
+
+    /**
+     * 字符流来源, 只能读取一次, 解析器不会关闭该流
+     *
+     * @param reader 字符流
+     * @return XMLSource 数据来源
+     */
+    public static XMLSource fromReader(Reader reader) {
+        return new ReaderXMLSource(reader);
+    }
+
+    /**
+     * 内存字节数组来源, 可以重复读取. 数组不会被复制, 解析期间不能修改数组内容
+     *
+     * @param bytes    字节数组
+     * @param encoding 编码, 为null时由XML声明决定
+     * @return XMLSource 数据来源
+     */
+    public static XMLSource fromBytes(byte[] bytes, String encoding) {
+        return new BytesXMLSource(bytes, 0, bytes.length, encoding);
+    }
+
+    /**
+     * NIO缓冲区来源, 读取 position 到 limit 之间的内容, 可以重复读取且不会修改缓冲区的 position
+     *
+     * @param buffer   缓冲区
+     * @param encoding 编码, 为null时由XML声明决定
+     * @return XMLSource 数据来源
+     */
+    public static XMLSource fromBuffer(ByteBuffer buffer, String encoding) {
+        return new ByteBufferXMLSource(buffer, encoding);
+    }
+
+}
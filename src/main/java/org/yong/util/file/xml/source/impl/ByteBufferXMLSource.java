@@ -0,0 +1,82 @@
+package org.yong.util.file.xml.source.impl;
+
+import org.yong.util.file.xml.source.XMLSource;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * NIO缓冲区数据来源, 每次读取都使用缓冲区副本, 不会修改原缓冲区的 position
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class ByteBufferXMLSource implements XMLSource {
+
+    private final ByteBuffer buffer;
+
+    private final String encoding;
+
+    public ByteBufferXMLSource(ByteBuffer buffer, String encoding) {
+        if (null == buffer)
+            throw new IllegalArgumentException("缓冲区不能为null");
+        this.buffer = buffer;
+        this.encoding = encoding;
+    }
+
+    @Override
+    public InputStream openStream() {
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    @Override
+    public ByteBuffer getByteBuffer() {
+        return buffer.slice();
+    }
+
+    @Override
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * 基于缓冲区的输入流, 堆外缓冲区也不需要先复制到数组
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (0 == len)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
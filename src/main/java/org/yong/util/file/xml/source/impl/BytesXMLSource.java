@@ -0,0 +1,48 @@
+package org.yong.util.file.xml.source.impl;
+
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+import org.yong.util.file.xml.source.XMLSource;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 内存字节数组数据来源
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class BytesXMLSource implements XMLSource {
+
+    private final byte[] bytes;
+
+    private final int offset;
+
+    private final int length;
+
+    private final String encoding;
+
+    public BytesXMLSource(byte[] bytes, int offset, int length, String encoding) {
+        if (null == bytes)
+            throw new IllegalArgumentException("字节数组不能为null");
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.encoding = encoding;
+    }
+
+    @Override
+    public InputStream openStream() {
+        return new UnsynchronizedByteArrayInputStream(bytes, offset, length);
+    }
+
+    @Override
+    public ByteBuffer getByteBuffer() {
+        return ByteBuffer.wrap(bytes, offset, length).slice();
+    }
+
+    @Override
+    public String getEncoding() {
+        return encoding;
+    }
+}
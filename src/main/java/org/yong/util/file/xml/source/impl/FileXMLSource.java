@@ -0,0 +1,72 @@
+package org.yong.util.file.xml.source.impl;
+
+import org.yong.util.file.xml.source.XMLSource;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 文件数据来源
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class FileXMLSource implements XMLSource {
+
+    private final String path;
+
+    private final String encoding;
+
+    public FileXMLSource(String path, String encoding) {
+        this.path = path;
+        this.encoding = encoding;
+    }
+
+    public FileXMLSource(File file, String encoding) {
+        this(null == file ? null : file.getPath(), encoding);
+    }
+
+    /**
+     * 获取XML文件对象
+     *
+     * @return File XML文件对象
+     */
+    public File getFile() {
+        if (path == null || 0 >= path.length()) {
+            throw new RuntimeException("Path invalid[path=" + path + "]");
+        }
+        return new File(path);
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return new FileInputStream(getFile());
+    }
+
+    @Override
+    public ByteBuffer getByteBuffer() throws IOException {
+        try (FileChannel channel = FileChannel.open(getFile().toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (Integer.MAX_VALUE < size)
+                throw new UnsupportedOperationException("文件超过2GB, 不支持整体内存映射, 可以使用PARALLEL模式按区域映射解析[path=" + path + "]");
+
+            // 映射建立后关闭通道不影响缓冲区读取
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    @Override
+    public String getEncoding() {
+        return encoding;
+    }
+
+    @Override
+    public String getSystemId() {
+        return getFile().toURI().toString();
+    }
+}
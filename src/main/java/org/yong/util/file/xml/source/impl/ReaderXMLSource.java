@@ -0,0 +1,34 @@
+package org.yong.util.file.xml.source.impl;
+
+import org.apache.commons.io.input.CloseShieldReader;
+import org.yong.util.file.xml.source.XMLSource;
+
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * 字符流数据来源, 解析器关闭时不会关闭调用者的流
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class ReaderXMLSource implements XMLSource {
+
+    private final Reader reader;
+
+    public ReaderXMLSource(Reader reader) {
+        if (null == reader)
+            throw new IllegalArgumentException("输入流不能为null");
+        this.reader = reader;
+    }
+
+    @Override
+    public InputStream openStream() {
+        return null;
+    }
+
+    @Override
+    public Reader openReader() {
+        return new CloseShieldReader(reader);
+    }
+}
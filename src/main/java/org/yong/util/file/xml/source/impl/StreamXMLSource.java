@@ -0,0 +1,36 @@
+package org.yong.util.file.xml.source.impl;
+
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.yong.util.file.xml.source.XMLSource;
+
+import java.io.InputStream;
+
+/**
+ * 字节流数据来源, 解析器关闭时不会关闭调用者的流
+ *
+ * @author Huang.Yong
+ * @version 1.4
+ */
+public class StreamXMLSource implements XMLSource {
+
+    private final InputStream in;
+
+    private final String encoding;
+
+    public StreamXMLSource(InputStream in, String encoding) {
+        if (null == in)
+            throw new IllegalArgumentException("输入流不能为null");
+        this.in = in;
+        this.encoding = encoding;
+    }
+
+    @Override
+    public InputStream openStream() {
+        return new CloseShieldInputStream(in);
+    }
+
+    @Override
+    public String getEncoding() {
+        return encoding;
+    }
+}
@@ -0,0 +1,80 @@
+package org.yong.util.file.xml.object;
+
+import lombok.Data;
+import org.junit.Test;
+import org.yong.util.file.xml.CompiledPath;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.annotation.XmlField;
+import org.yong.util.file.xml.annotation.XmlTag;
+
+import static org.junit.Assert.*;
+
+/**
+ * 预编译路径测试
+ *
+ * @version 1.4
+ */
+public class CompiledPathTest {
+
+    @Data
+    @XmlTag("TourReport")
+    public static class Report {
+
+        @XmlField(name = "stationName", path = {"TourStationList", "TourStation[1]"})
+        private String secondStation;
+
+        @XmlField(name = "analysis", path = {"TourStationList", "TourStation[1]", "TourAction[1]", "SnapshotPosition", "SnapshotSample"})
+        private String analysis;
+
+        @XmlField(name = "stationName", path = {"TourStationList", "TourStation[9]"})
+        private String missing;
+    }
+
+    private XMLObject parse() throws Exception {
+        String file = CompiledPathTest.class.getResource("/test1_20200902_145714.xml").getFile();
+        return new XMLParser(file).parse();
+    }
+
+    @Test
+    public void testCompile() {
+        CompiledPath path = CompiledPath.compile("a", "b[12]", "c[0]");
+        assertEquals(3, path.size());
+        assertEquals("b", path.getTagName(1));
+        assertEquals(12, path.getIndex(1));
+        assertEquals(0, path.getIndex(0));
+        assertEquals(CompiledPath.compile("a[0]", "b[12]", "c"), path);
+        assertSame(CompiledPath.EMPTY, CompiledPath.compile());
+
+        String[][] invalid = {{"a[1][2]"}, {"a[x]"}, {"a[]"}, {"a[1"}, {"[1]"}, {""}, {"a[-1]"}};
+        for (String[] path1 : invalid) {
+            try {
+                CompiledPath.compile(path1);
+                fail(path1[0]);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testSelect() throws Exception {
+        XMLObject root = parse();
+        XMLObject station = root.select(CompiledPath.compile("TourStationList", "TourStation[1]"));
+        assertEquals("识别2", station.getAttr("stationName"));
+        assertSame(root, root.select(CompiledPath.EMPTY));
+        assertNull(root.select(CompiledPath.compile("TourStationList", "not-exists")));
+
+        // 寻路不会创建空列表
+        assertFalse(root.getChildTag("TourStationList", 0).getChildTags().containsKey("not-exists"));
+    }
+
+    @Test
+    public void testBind() throws Exception {
+        Report report = parse().toBean(Report.class);
+        assertEquals("识别2", report.getSecondStation());
+        assertEquals("", report.getAnalysis());
+        assertNull(report.getMissing());
+    }
+
+}
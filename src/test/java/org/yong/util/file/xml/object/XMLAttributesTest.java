@@ -0,0 +1,81 @@
+package org.yong.util.file.xml.object;
+
+import org.junit.Test;
+import org.yong.util.file.xml.XMLAttributes;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 紧凑属性表测试
+ *
+ * @version 1.4
+ */
+public class XMLAttributesTest {
+
+    @Test
+    public void testMapContract() {
+        Map<String, String> expect = new LinkedHashMap<>();
+        Map<String, String> attrs = new XMLAttributes();
+        assertTrue(attrs.isEmpty());
+        assertNull(attrs.get("a"));
+
+        for (int i = 0; i < 20; i++) {
+            assertNull(attrs.put("k" + i, "v" + i));
+            expect.put("k" + i, "v" + i);
+        }
+        assertEquals("v3", attrs.put(new String("k3"), "x"));
+        expect.put("k3", "x");
+        assertEquals(expect, attrs);
+        assertEquals(expect.hashCode(), attrs.hashCode());
+        assertEquals(new ArrayList<>(expect.keySet()), new ArrayList<>(attrs.keySet()));
+
+        // 删除, 迭代删除, 条目写回
+        assertEquals("v0", attrs.remove("k0"));
+        assertNull(attrs.remove("k0"));
+        expect.remove("k0");
+        for (Iterator<Map.Entry<String, String>> it = attrs.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, String> me = it.next();
+            if (me.getKey().endsWith("5"))
+                it.remove();
+            else if (me.getKey().endsWith("7"))
+                me.setValue("seven");
+        }
+        expect.remove("k5");
+        expect.remove("k15");
+        expect.put("k7", "seven");
+        expect.put("k17", "seven");
+        assertEquals(expect, attrs);
+        assertTrue(attrs.containsKey("k19"));
+        assertFalse(attrs.containsKey(null));
+
+        attrs.clear();
+        assertEquals(0, attrs.size());
+        assertEquals(new XMLAttributes(Collections.singletonMap("a", "1")), Collections.singletonMap("a", "1"));
+    }
+
+    @Test
+    public void testEqualsWithoutAttrs() throws Exception {
+        XMLObject a = XMLParser.createNode("n", "x", null);
+        XMLObject b = XMLParser.createNode("n", "x", null);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+
+        // 比较和计算哈希值不会创建属性表
+        Field field = XMLObject.class.getDeclaredField("attrs");
+        field.setAccessible(true);
+        assertNull(field.get(a));
+        assertNull(field.get(b));
+
+        // 没有属性表与空属性表相等
+        b.getAttrs();
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        b.getAttrs().put("k", "v");
+        assertNotEquals(a, b);
+    }
+}
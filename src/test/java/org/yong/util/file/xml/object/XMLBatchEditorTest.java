@@ -0,0 +1,146 @@
+package org.yong.util.file.xml.object;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.yong.util.file.xml.XMLBatchEditor;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * 批量编辑测试
+ *
+ * @version 1.4
+ */
+public class XMLBatchEditorTest {
+
+    private XMLObject root;
+
+    private XMLObject route;
+
+    @Before
+    public void before() {
+        root = XMLParser.createNode("root", null, null);
+        root.setRootElement(true);
+        route = XMLParser.createNode("route", null, null);
+        root.edit().insertAfter(route, root).apply();
+        for (int i = 0; i < 10; i++) {
+            // 内容相同的同级节点, 只能按引用区分
+            XMLObject station = XMLParser.createNode("station", "same", null);
+            station.addAttr("id", String.valueOf(i));
+            route.addChildTag(station);
+            station.setParent(route);
+        }
+    }
+
+    private String ids(XMLObject parent) {
+        return parent.getChildTags("station").stream().map(s -> s.getAttr("id")).collect(Collectors.joining(","));
+    }
+
+    @Test
+    public void testReorder() {
+        List<XMLObject> stations = new ArrayList<>(route.getChildTags("station"));
+        Collections.reverse(stations);
+        XMLBatchEditor editor = root.edit();
+        for (XMLObject station : stations)
+            editor.insertAfter(station, route);
+        assertEquals(10, editor.apply());
+        assertEquals("9,8,7,6,5,4,3,2,1,0", ids(route));
+        for (XMLObject station : route.getChildTags("station"))
+            assertSame(route, station.getParent());
+    }
+
+    @Test
+    public void testMixed() {
+        List<XMLObject> stations = new ArrayList<>(route.getChildTags("station"));
+        XMLObject added = XMLParser.createNode("station", "same", null);
+        added.addAttr("id", "x");
+
+        int count = root.edit()
+                .remove(stations.get(0))
+                .appendAfter(stations.get(1), stations.get(5))
+                .appendAfter(stations.get(2), stations.get(5))
+                .appendBefore(added, stations.get(9))
+                .insertBefore(stations.get(8), route)
+                .apply();
+        assertEquals(5, count);
+        assertEquals("8,3,4,5,1,2,6,7,x,9", ids(route));
+        assertNull(stations.get(0).getParent());
+        assertSame(route, added.getParent());
+
+        // 移到其他父节点, 原列表为空时删除
+        XMLObject other = XMLParser.createNode("other", null, null);
+        root.edit().insertAfter(other, root).apply();
+        XMLBatchEditor editor = root.edit();
+        for (XMLObject station : route.getChildTags("station"))
+            editor.insertAfter(station, other);
+        editor.apply();
+        assertFalse(route.getChildTags().containsKey("station"));
+        assertEquals("8,3,4,5,1,2,6,7,x,9", ids(other));
+    }
+
+    @Test
+    public void testInvalid() {
+        XMLObject first = route.getChildTag("station", 0);
+        XMLObject second = route.getChildTag("station", 1);
+        try {
+            root.edit().remove(first).appendAfter(second, first);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            root.edit().insertAfter(route, first);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 不能插入到后代节点中
+        }
+        try {
+            root.edit().remove(first).remove(first);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals("0,1,2,3,4,5,6,7,8,9", ids(route));
+    }
+
+    @Test(timeout = 5000)
+    public void testCycle() {
+        XMLObject first = route.getChildTag("station", 0);
+        XMLObject second = route.getChildTag("station", 1);
+        XMLObject third = route.getChildTag("station", 2);
+
+        // 同级节点互相插入会形成环
+        XMLBatchEditor editor = root.edit().insertAfter(first, second);
+        try {
+            editor.insertAfter(second, first);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // 经过多次移动形成的环
+        editor = root.edit().insertAfter(first, second).insertAfter(second, third);
+        try {
+            editor.insertBefore(third, first);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals("0,1,2,3,4,5,6,7,8,9", ids(route));
+
+        // 不形成环的移动仍然可以执行
+        assertEquals(2, root.edit().insertAfter(first, second).insertAfter(third, second).apply());
+        assertSame(second, first.getParent());
+        assertSame(second, third.getParent());
+        assertSame(route, second.getParent());
+        assertEquals("0,2", ids(second));
+    }
+
+}
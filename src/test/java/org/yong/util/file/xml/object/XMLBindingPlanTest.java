@@ -0,0 +1,161 @@
+package org.yong.util.file.xml.object;
+
+import lombok.Data;
+import org.junit.Test;
+import org.yong.util.entity.SnapshotPosition;
+import org.yong.util.entity.TourAction;
+import org.yong.util.entity.TourStation;
+import org.yong.util.file.xml.Reflects;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.annotation.XmlField;
+import org.yong.util.file.xml.annotation.XmlTag;
+import org.yong.util.file.xml.parser.FieldValueParserFactory;
+import org.yong.util.file.xml.parser.iface.SimpleValueParser;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 实体类映射计划测试
+ *
+ * @version 1.4
+ */
+public class XMLBindingPlanTest {
+
+    @Data
+    public static class Code {
+        private String value;
+    }
+
+    @Data
+    @XmlTag("Item")
+    public static class Item {
+
+        @XmlField
+        public String name;
+
+        @XmlField
+        private Code code;
+    }
+
+    @XmlTag("Item")
+    static class PrivateItem {
+
+        @XmlField
+        private String name;
+
+        @XmlField
+        private int count;
+
+        private PrivateItem() {
+        }
+    }
+
+    @XmlTag("Item")
+    public static class NoDefaultItem {
+
+        @XmlField
+        private String name;
+
+        public NoDefaultItem(String name) {
+            this.name = name;
+        }
+    }
+
+    private XMLObject parse() throws Exception {
+        String file = XMLBindingPlanTest.class.getResource("/test1_20200902_145714.xml").getFile();
+        return new XMLParser(file).parse();
+    }
+
+    @Test
+    public void testFields() {
+        List<Field> fields = Reflects.getFields(Item.class);
+        assertEquals(1, fields.stream().filter(field -> "name".equals(field.getName())).count());
+        assertEquals(1, fields.stream().filter(field -> "code".equals(field.getName())).count());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        XMLObject root = parse();
+        List<TourStation> stations = root.toBeans("TourStation", TourStation.class);
+        assertEquals(stations, root.toBeans("TourStation", TourStation.class));
+
+        List<TourAction> actions = root.toBeans("TourAction", TourAction.class);
+        TourAction action = actions.get(1);
+        assertNotNull(action.getSnapshotPosition());
+        XMLObject xmlObject = XMLObject.of(action);
+        assertEquals("TourAction", xmlObject.getTagName());
+        assertEquals("仪表", xmlObject.getAttr("actionName"));
+        assertEquals(action.getSnapshotPosition(), xmlObject.getChildTag("SnapshotPosition", 0).toBean(SnapshotPosition.class));
+
+        try {
+            root.toBean(TourStation.class);
+            fail();
+        } catch (RuntimeException e) {
+            // 期望标签名不一致
+        }
+    }
+
+    @Test
+    public void testParserRegisteredLater() {
+        Map<String, String> attrs = new HashMap<>();
+        attrs.put("name", "n1");
+        attrs.put("code", "{\"value\":\"a\"}");
+        XMLObject item = XMLParser.createNode("Item", null, attrs);
+        assertEquals("a", item.toBean(Item.class).getCode().getValue());
+
+        // 映射计划已缓存, 之后注册的解析器仍然生效
+        FieldValueParserFactory.reg(new SimpleValueParser<Code>() {
+            @Override
+            public Class<Code> getPreciseType() {
+                return Code.class;
+            }
+
+            @Override
+            public Code fromXml(Class<?> type, String value) {
+                Code code = new Code();
+                code.setValue(value.toUpperCase());
+                return code;
+            }
+        });
+        Item bean = item.toBean(Item.class);
+        assertEquals("n1", bean.getName());
+        assertEquals("{\"VALUE\":\"A\"}", bean.getCode().getValue());
+    }
+
+    @Test
+    public void testConstructor() {
+        Map<String, String> attrs = new HashMap<>();
+        attrs.put("name", "n1");
+        attrs.put("count", "3");
+        XMLObject item = XMLParser.createNode("Item", null, attrs);
+
+        // 非公开类和私有构造器
+        PrivateItem bean = item.toBean(PrivateItem.class);
+        assertEquals("n1", bean.name);
+        assertEquals(3, bean.count);
+        assertEquals("3", XMLObject.of(bean).getAttr("count"));
+
+        try {
+            item.toBean(NoDefaultItem.class);
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof NoSuchMethodException);
+        }
+
+        // 基本类型字段不能设置为null
+        attrs.remove("count");
+        try {
+            XMLParser.createNode("Item", null, attrs).toBean(PrivateItem.class);
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.yong.util.file.xml.object;
+
+import org.junit.Test;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.XMLVisitResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * 后代节点流测试
+ *
+ * @version 1.4
+ */
+public class XMLDescendantsTest {
+
+    private XMLObject parse() throws Exception {
+        String file = XMLDescendantsTest.class.getResource("/test1_20200902_145714.xml").getFile();
+        return new XMLParser(file).parse();
+    }
+
+    /**
+     * 使用 walk 获取后代节点, 作为期望结果
+     */
+    private List<XMLObject> walk(XMLObject root) {
+        List<XMLObject> result = new ArrayList<>();
+        root.walk((node, depth) -> {
+            if (0 < depth)
+                result.add(node);
+            return XMLVisitResult.CONTINUE;
+        });
+        return result;
+    }
+
+    private void assertSameNodes(List<XMLObject> expected, List<XMLObject> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertSame(expected.get(i), actual.get(i));
+    }
+
+    /**
+     * 尽可能分割后按前缀顺序合并
+     */
+    private void splitAll(Spliterator<XMLObject> spliterator, List<XMLObject> result) {
+        Spliterator<XMLObject> prefix = spliterator.trySplit();
+        if (null == prefix) {
+            spliterator.forEachRemaining(result::add);
+            return;
+        }
+        splitAll(prefix, result);
+        splitAll(spliterator, result);
+    }
+
+    @Test
+    public void testOrder() throws Exception {
+        XMLObject root = parse();
+        List<XMLObject> expected = walk(root);
+        assertSameNodes(expected, root.descendants().collect(Collectors.toList()));
+        assertSameNodes(expected, root.descendants().parallel().collect(Collectors.toList()));
+
+        List<XMLObject> split = new ArrayList<>();
+        splitAll(root.descendants().spliterator(), split);
+        assertSameNodes(expected, split);
+
+        XMLObject action = root.getAllChildTags("TourAction").get(0);
+        assertSameNodes(walk(action), action.descendants().collect(Collectors.toList()));
+        XMLObject leaf = root.getAllChildTags("SnapshotSample").get(0);
+        assertEquals(0, leaf.descendants().count());
+    }
+
+    @Test
+    public void testTagName() throws Exception {
+        XMLObject root = parse();
+        assertEquals(4, root.descendants("TourAction").count());
+        assertEquals(0, root.descendants("TourReport").count());
+
+        XMLObject station = root.getAllChildTags("TourStation").get(1);
+        List<XMLObject> expected = station.getAllChildTags("TourAction");
+        assertSameNodes(expected, station.descendants("TourAction").collect(Collectors.toList()));
+
+        // 已建立索引时结果一致, 并且不包括当前节点
+        root.buildTagIndex();
+        assertSameNodes(expected, station.descendants("TourAction").collect(Collectors.toList()));
+        assertEquals(0, station.descendants("TourStation").count());
+        assertEquals(4, root.descendants("TourAction").parallel().count());
+    }
+
+    @Test
+    public void testChain() {
+        // 单链节点树每次只能展开一层
+        XMLObject root = XMLParser.createNode("n", null, null);
+        XMLObject current = root;
+        for (int i = 0; i < 1000; i++) {
+            XMLObject child = XMLParser.createNode("n", String.valueOf(i), null);
+            current.addChildTag(child);
+            child.setParent(current);
+            current = child;
+        }
+
+        List<XMLObject> split = new ArrayList<>();
+        splitAll(root.descendants().spliterator(), split);
+        assertSameNodes(walk(root), split);
+        assertEquals("999", root.descendants().parallel().reduce((a, b) -> b).get().getContent());
+    }
+
+}
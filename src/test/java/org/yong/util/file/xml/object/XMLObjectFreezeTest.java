@@ -0,0 +1,94 @@
+package org.yong.util.file.xml.object;
+
+import org.junit.Test;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.engine.ParseMode;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * 冻结节点测试
+ *
+ * @version 1.4
+ */
+public class XMLObjectFreezeTest {
+
+    private XMLObject parse(ParseMode mode) {
+        String file = XMLObjectFreezeTest.class.getResource("/xml-test-engine.xml").getFile();
+        try {
+            return new XMLParser(file, mode).parse();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testEquality() {
+        XMLObject a = parse(ParseMode.STAX).freeze();
+        XMLObject b = parse(ParseMode.LAZY).freeze();
+        assertTrue(a.isFrozen());
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(a, b);
+
+        // 冻结节点只和冻结节点相等
+        XMLObject c = parse(ParseMode.STAX);
+        assertNotEquals(a, c);
+        assertNotEquals(c, a);
+
+        // 子树比较不包含父级节点
+        String childName = a.getChildTags().keySet().iterator().next();
+        assertEquals(a.getChildTag(childName, 0), b.getChildTag(childName, 0));
+        assertTrue(a.getChildTag(childName, 0).isFrozen());
+    }
+
+    @Test
+    public void testReadOnly() {
+        XMLObject root = parse(ParseMode.STAX).freeze();
+        String childName = root.getChildTags().keySet().iterator().next();
+        XMLObject child = root.getChildTag(childName, 0);
+
+        assertEquals(Collections.emptyList(), root.getChildTags("not-exists"));
+        assertFalse(root.getChildTags().containsKey("not-exists"));
+
+        Runnable[] writes = {
+                () -> root.addAttr("a", "b"),
+                () -> root.getAttrs().put("a", "b"),
+                () -> root.getChildTags().clear(),
+                () -> root.getChildTags(childName).clear(),
+                () -> child.setContent("x"),
+                () -> child.insertBefore(root),
+                () -> root.addChildTag(parse(ParseMode.STAX)),
+        };
+        for (Runnable write : writes) {
+            try {
+                write.run();
+                fail();
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testShare() throws Exception {
+        XMLObject root = parse(ParseMode.LAZY).freeze();
+        int hash = root.hashCode();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future[8];
+            for (int i = 0; i < futures.length; i++)
+                futures[i] = pool.submit(() -> assertEquals(hash, parse(ParseMode.STAX).freeze().hashCode()));
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
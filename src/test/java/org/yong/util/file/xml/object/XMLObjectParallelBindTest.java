@@ -0,0 +1,94 @@
+package org.yong.util.file.xml.object;
+
+import org.junit.Test;
+import org.yong.util.entity.TourAction;
+import org.yong.util.entity.TourStation;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * 并行映射实体测试
+ *
+ * @version 1.4
+ */
+public class XMLObjectParallelBindTest {
+
+    private XMLObject parse() throws Exception {
+        String file = XMLObjectParallelBindTest.class.getResource("/test1_20200902_145714.xml").getFile();
+        return new XMLParser(file).parse();
+    }
+
+    /**
+     * 复制TourStation, 生成足够多的子标签
+     */
+    private XMLObject copies(XMLObject root, int count) {
+        XMLObject list = root.getChildTag("TourStationList", 0);
+        List<XMLObject> stations = list.getChildTags("TourStation");
+        for (int i = 0; i < count; i++) {
+            XMLObject station = XMLParser.createNode("TourStation", null, null);
+            station.addAttr("stationName", "station-" + i);
+            station.addAttr("location", String.valueOf(i));
+            station.addAttr("endLocation", String.valueOf(i + 1));
+            station.addAttr("speed", "200");
+            for (XMLObject action : stations.get(i % stations.size()).getChildTags("TourAction")) {
+                XMLObject copy = XMLParser.createNode("TourAction", null, action.getAttrs());
+                station.addChildTag(copy);
+                copy.setParent(station);
+            }
+            list.addChildTag(station);
+            station.setParent(list);
+        }
+        return root;
+    }
+
+    @Test
+    public void testOrder() throws Exception {
+        XMLObject root = copies(parse(), 2000);
+        List<TourStation> expected = root.toBeans("TourStation", TourStation.class);
+        assertEquals(2002, expected.size());
+
+        assertEquals(expected, root.toBeansParallel("TourStation", TourStation.class));
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<TourStation> actual = root.toBeansParallel("TourStation", TourStation.class, executor);
+            assertEquals(expected, actual);
+            assertEquals("station-1999", actual.get(2001).getStationName());
+        } finally {
+            executor.shutdown();
+        }
+
+        // 子标签较少时在当前线程映射
+        List<TourAction> actions = parse().toBeansParallel("TourAction", TourAction.class, command -> fail());
+        assertEquals(parse().toBeans("TourAction", TourAction.class), actions);
+    }
+
+    @Test
+    public void testNoSideEffect() throws Exception {
+        // 映射时不再为缺少的子标签创建空列表
+        XMLObject root = parse();
+        List<XMLObject> actions = root.query("//TourAction[@mountDvsType='1']");
+        assertFalse(actions.isEmpty());
+        int[] groups = new int[actions.size()];
+        for (int i = 0; i < groups.length; i++)
+            groups[i] = actions.get(i).getChildTags().size();
+
+        root.toBeans("TourAction", TourAction.class);
+        for (int i = 0; i < groups.length; i++)
+            assertEquals(groups[i], actions.get(i).getChildTags().size());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testError() throws Exception {
+        XMLObject root = copies(parse(), 2000);
+        root.getAllChildTags("TourStation").get(1500).addAttr("location", "{");
+        root.toBeansParallel("TourStation", TourStation.class);
+    }
+
+}
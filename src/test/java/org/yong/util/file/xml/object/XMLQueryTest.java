@@ -0,0 +1,97 @@
+package org.yong.util.file.xml.object;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.query.XMLQuery;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * XPath子集查询测试
+ *
+ * @version 1.4
+ */
+public class XMLQueryTest {
+
+    private static XMLObject root;
+
+    @BeforeClass
+    public static void before() throws Exception {
+        String file = XMLQueryTest.class.getResource("/test1_20200902_145714.xml").getFile();
+        root = new XMLParser(file).parse();
+    }
+
+    private int count(String expression) {
+        return XMLQuery.compile(expression).count(root);
+    }
+
+    @Test
+    public void testPath() {
+        assertSame(root, XMLQuery.compile("/").selectFirst(root));
+        assertSame(root, XMLQuery.compile("/TourReport").selectFirst(root));
+        assertEquals(0, count("/TourStation"));
+        assertEquals(2, count("/TourReport/TourStationList/TourStation"));
+        assertEquals(2, count("TourStationList/TourStation"));
+        assertEquals(4, count("//TourAction"));
+        assertEquals(4, count("//TourStation//TourAction"));
+        assertEquals(2, count("//SnapshotSample/../.."));
+        assertEquals(1, count("//TourReport"));
+        assertEquals(4, count("/TourReport/*"));
+        assertEquals(2, count("count(//TourStation)"));
+
+        // 从子节点出发的绝对路径
+        XMLObject action = root.query("//TourAction").get(3);
+        assertEquals(4, XMLQuery.compile("//TourAction").count(action));
+        assertEquals(1, XMLQuery.compile("./SnapshotPosition").count(action));
+        assertEquals(2, XMLQuery.compile("..//TourAction").count(action));
+    }
+
+    @Test
+    public void testPredicate() {
+        List<XMLObject> stations = root.query("//TourStation[@stationName='识别2']");
+        assertEquals(1, stations.size());
+        assertEquals("识别2", stations.get(0).getAttr("stationName"));
+
+        assertEquals(2, count("//TourStation[@stationName]"));
+        assertEquals(1, count("//TourStation[@stationName!='识别2']"));
+        assertEquals(0, count("//TourStation[@nothing='x']"));
+        assertEquals(2, count("//TourAction[1]"));
+        assertEquals(2, count("//TourAction[last()]"));
+        assertEquals(2, count("//TourAction[@mountDvsType='3'][1]"));
+        assertEquals(0, count("//TourAction[@mountDvsType='3'][2]"));
+        assertEquals(2, count("//TourAction[SnapshotPosition]"));
+        assertEquals(2, count("//TourAction[SensorInfo or @mountDvsType='9']"));
+        assertEquals(1, count("//TourStation[@location='500' and @stationName='识别1']"));
+        assertEquals(1, count("//TourStation[1]"));
+
+        XMLObject second = XMLQuery.compile("/TourReport/TourStationList/TourStation[2]").selectFirst(root);
+        assertSame(stations.get(0), second);
+        assertSame(second, XMLQuery.compile("//TourStation[last()]").selectFirst(root));
+    }
+
+    @Test
+    public void testPlanCache() {
+        assertSame(XMLQuery.compile("//TourStation[1]"), XMLQuery.compile("//TourStation[1]"));
+
+        String[] invalid = {null, "", " ", "//", "a[", "a[@b=]", "a[1]]", "count(a", "a[@b][last()]", "/..", "a//.."};
+        for (String expression : invalid) {
+            try {
+                XMLQuery.compile(expression);
+                fail(expression);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        try {
+            XMLQuery.compile("count(//a)").select(root);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+}
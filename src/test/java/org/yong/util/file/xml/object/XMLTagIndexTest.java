@@ -0,0 +1,119 @@
+package org.yong.util.file.xml.object;
+
+import org.junit.Test;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * 标签名索引测试
+ *
+ * @version 1.4
+ */
+public class XMLTagIndexTest {
+
+    private XMLObject parse(boolean indexed) throws Exception {
+        String file = XMLTagIndexTest.class.getResource("/test1_20200902_145714.xml").getFile();
+        XMLParser xmlParser = new XMLParser(file);
+        return indexed ? xmlParser.parseIndexed() : xmlParser.parse();
+    }
+
+    private void collect(XMLObject node, List<XMLObject> nodes, Set<String> names) {
+        nodes.add(node);
+        names.add(node.getTagName());
+        for (List<XMLObject> children : node.getChildTags().values())
+            for (XMLObject child : children)
+                collect(child, nodes, names);
+    }
+
+    private int order(List<XMLObject> nodes, XMLObject node) {
+        for (int i = 0; i < nodes.size(); i++)
+            if (nodes.get(i) == node)
+                return i;
+        return -1;
+    }
+
+    /**
+     * 从每个节点出发查询每个标签名, 索引结果必须与未建立索引时完全一致
+     */
+    private void assertSameResult(XMLObject expect, XMLObject actual) {
+        List<XMLObject> expectNodes = new ArrayList<>();
+        List<XMLObject> actualNodes = new ArrayList<>();
+        Set<String> names = new LinkedHashSet<>();
+        collect(expect, expectNodes, names);
+        collect(actual, actualNodes, new LinkedHashSet<>());
+        assertEquals(expectNodes.size(), actualNodes.size());
+
+        for (int i = 0; i < expectNodes.size(); i++) {
+            for (String name : names) {
+                List<XMLObject> expectResult = expectNodes.get(i).getAllChildTags(name);
+                List<XMLObject> actualResult = actualNodes.get(i).getAllChildTags(name);
+                assertEquals(expectResult.size(), actualResult.size());
+                for (int j = 0; j < expectResult.size(); j++)
+                    assertEquals(order(expectNodes, expectResult.get(j)), order(actualNodes, actualResult.get(j)));
+            }
+        }
+    }
+
+    @Test
+    public void testFind() throws Exception {
+        assertSameResult(parse(false), parse(true));
+    }
+
+    @Test
+    public void testFindBy() throws Exception {
+        XMLObject root = parse(false);
+        for (XMLObject station : root.getAllChildTags("TourStation")) {
+            String name = station.getAttr("stationName");
+            List<XMLObject> found = root.findBy("TourStation", "stationName", name);
+            assertTrue(found.stream().anyMatch(s -> s == station));
+            for (XMLObject node : found)
+                assertEquals(name, node.getAttr("stationName"));
+        }
+        assertTrue(root.findBy("TourStation", "stationName", "not-exists").isEmpty());
+        assertTrue(root.findBy("not-exists", "stationName", "x").isEmpty());
+
+        // 从子节点出发只查找子树
+        XMLObject station = root.getAllChildTags("TourStation").get(0);
+        XMLObject task = station.getParent();
+        for (XMLObject node : task.findBy("TourStation", "stationName", station.getAttr("stationName")))
+            assertSame(task, node.getParent());
+
+        // 属性修改后索引失效
+        station.addAttr("stationName", "renamed");
+        assertSame(station, root.findBy("TourStation", "stationName", "renamed").get(0));
+
+        // 结构修改后索引失效
+        XMLObject added = XMLParser.createNode("TourStation", null, null);
+        added.addAttr("stationName", "added");
+        root.edit().appendAfter(added, station).apply();
+        assertSame(added, root.findBy("TourStation", "stationName", "added").get(0));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        XMLObject expect = parse(false);
+        XMLObject actual = parse(true);
+        assertSameResult(expect, actual);
+
+        for (XMLObject root : new XMLObject[]{expect, actual}) {
+            List<XMLObject> stations = root.getAllChildTags("TourStation");
+            XMLObject first = stations.get(0);
+            XMLObject last = stations.get(stations.size() - 1);
+            root.edit().appendAfter(first, last).apply();
+
+            XMLObject added = XMLParser.createNode("TourAction", null, null);
+            last.addChildTag(added);
+            added.setParent(last);
+        }
+        assertSameResult(expect, actual);
+        assertTrue(actual.getAllChildTags("TourStation").size() > 1);
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.yong.util.file.xml.object;
+
+import org.junit.Test;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.XMLVisitResult;
+import org.yong.util.file.xml.XMLVisitor;
+import org.yong.util.file.xml.engine.ParseMode;
+import org.yong.util.file.xml.fmt.XMLObjectFormatterFactory;
+import org.yong.util.file.xml.source.XMLSourceFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 非递归遍历测试
+ *
+ * @version 1.4
+ */
+public class XMLTreeWalkerTest {
+
+    private static final int DEPTH = 100000;
+
+    private XMLObject parse() throws Exception {
+        String file = XMLTreeWalkerTest.class.getResource("/test1_20200902_145714.xml").getFile();
+        return new XMLParser(file).parse();
+    }
+
+    @Test
+    public void testOrder() throws Exception {
+        XMLObject root = parse();
+        XMLObject list = root.getChildTag("TourStationList", 0);
+
+        List<String> events = new ArrayList<>();
+        list.walk(new XMLVisitor() {
+            @Override
+            public XMLVisitResult enter(XMLObject node, int depth) {
+                events.add("+" + node.getTagName() + depth);
+                return "TourAction".equals(node.getTagName()) ? XMLVisitResult.SKIP_SUBTREE : XMLVisitResult.CONTINUE;
+            }
+
+            @Override
+            public XMLVisitResult leave(XMLObject node, int depth) {
+                events.add("-" + node.getTagName() + depth);
+                return XMLVisitResult.CONTINUE;
+            }
+        });
+
+        assertEquals("+TourStationList0", events.get(0));
+        assertEquals("+TourStation1", events.get(1));
+        assertEquals("+TourAction2", events.get(2));
+        assertEquals("+TourAction2", events.get(3));
+        assertEquals("-TourStation1", events.get(4));
+        assertEquals("-TourStationList0", events.get(events.size() - 1));
+        assertEquals(10, events.size());
+    }
+
+    @Test
+    public void testTerminate() throws Exception {
+        XMLObject root = parse();
+        int[] visited = {0};
+        XMLVisitResult result = root.walk((node, depth) -> {
+            visited[0]++;
+            return "TourStation".equals(node.getTagName()) ? XMLVisitResult.TERMINATE : XMLVisitResult.CONTINUE;
+        });
+        assertEquals(XMLVisitResult.TERMINATE, result);
+        assertEquals(XMLVisitResult.CONTINUE, root.walk((node, depth) -> null));
+
+        XMLObject station = root.findFirst(node -> "TourStation".equals(node.getTagName()));
+        assertSame(root.getAllChildTags("TourStation").get(0), station);
+        assertSame(root, root.findFirst(node -> true));
+        assertNull(root.findFirst(node -> false));
+    }
+
+    @Test
+    public void testDeepTree() throws Exception {
+        StringBuilder xml = new StringBuilder(DEPTH * 8);
+        for (int i = 0; i < DEPTH; i++)
+            xml.append("<n d='").append(i).append("'>");
+        xml.append("leaf");
+        for (int i = 0; i < DEPTH; i++)
+            xml.append("</n>");
+
+        byte[] bytes = xml.toString().getBytes(StandardCharsets.UTF_8);
+        for (ParseMode mode : ParseMode.values()) {
+            XMLObject root = new XMLParser(XMLSourceFactory.fromBytes(bytes, "UTF-8"), mode).parse();
+
+            List<XMLObject> all = root.getAllChildTags("n");
+            assertEquals(mode.name(), DEPTH, all.size());
+            XMLObject leaf = all.get(DEPTH - 1);
+            assertEquals("leaf", leaf.getContent());
+            assertEquals(String.valueOf(DEPTH - 1), leaf.getAttr("d"));
+            assertSame(all.get(DEPTH - 2), leaf.getParent());
+
+            int[] maxDepth = {0};
+            root.walk((node, depth) -> {
+                maxDepth[0] = Math.max(maxDepth[0], depth);
+                return XMLVisitResult.CONTINUE;
+            });
+            assertEquals(DEPTH - 1, maxDepth[0]);
+
+            assertEquals(DEPTH, root.query("//n").size());
+            String formatted = XMLObjectFormatterFactory.createFormatter(true).format(root).toString();
+            assertTrue(formatted.contains("<n d=\"" + (DEPTH - 1) + "\">leaf</n></n>"));
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package org.yong.util.file.xml.parser;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.yong.util.file.xml.XMLBatchParser;
+import org.yong.util.file.xml.XMLParseResult;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.engine.ParseMode;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.engine.XMLParseEngineFactory;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * 目录批量解析测试
+ *
+ * @version 1.4
+ */
+public class XMLBatchParserTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("xml-batch").toFile();
+        for (int i = 0; i < 20; i++)
+            FileUtils.write(new File(dir, "doc-" + i + ".xml"), "<root><item id=\"" + i + "\">v" + i + "</item></root>", StandardCharsets.UTF_8);
+        FileUtils.write(new File(dir, "broken.xml"), "<root><item></root>", StandardCharsets.UTF_8);
+        FileUtils.write(new File(dir, "ignored.txt"), "<root/>", StandardCharsets.UTF_8);
+        assertTrue(new File(dir, "sub.xml").mkdir());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testParseAll() {
+        for (ParseMode mode : ParseMode.values()) {
+            Map<String, XMLParseResult> results = XMLParser.parseAll(dir, mode, 3);
+            assertEquals(mode.name(), 21, results.size());
+
+            // 延迟解析模式在访问子标签时才发现格式错误
+            XMLParseResult broken = results.get("broken.xml");
+            if (ParseMode.LAZY != mode) {
+                assertFalse(broken.isSuccess());
+                assertNull(broken.getRoot());
+                assertNotNull(broken.getError());
+            }
+
+            for (int i = 0; i < 20; i++) {
+                XMLParseResult result = results.get("doc-" + i + ".xml");
+                assertTrue(result.isSuccess());
+                assertEquals("v" + i, result.getRoot().getChildTag("item", 0).getContent());
+            }
+        }
+    }
+
+    @Test
+    public void testParseAllCallback() {
+        Map<String, String> names = new ConcurrentHashMap<>();
+        XMLBatchParser.parseAll(dir, ParseMode.STAX, 2, (name, result) -> {
+            if (result.isSuccess())
+                names.put(name, result.getRoot().getTagName());
+        });
+        assertEquals(20, names.size());
+        assertEquals("root", names.get("doc-0.xml"));
+    }
+
+    @Test
+    public void testEngineAndEncoding() throws Exception {
+        FileUtils.write(new File(dir, "gbk.xml"), "<root><item>中文</item></root>", "GBK");
+        XMLParseEngine dom4j = XMLParseEngineFactory.getEngine(ParseMode.DOM4J);
+
+        // 解析引擎抛出的错误记录在结果中, 不影响其它文件
+        XMLParseEngine engine = source -> {
+            if (source.getSystemId().endsWith("doc-3.xml"))
+                throw new AssertionError("doc-3");
+            return dom4j.parse(source);
+        };
+        Map<String, XMLParseResult> results = XMLBatchParser.parseAll(dir, engine, "GBK", 3);
+        assertEquals(22, results.size());
+        assertEquals("中文", results.get("gbk.xml").getRoot().getChildTag("item", 0).getContent());
+        assertTrue(results.get("doc-3.xml").getError() instanceof AssertionError);
+        assertTrue(results.get("doc-4.xml").isSuccess());
+
+        // 回调抛出的错误在所有文件结束后抛出
+        AssertionError thrown = null;
+        try {
+            XMLBatchParser.parseAll(dir, dom4j, "GBK", 2, (name, result) -> {
+                throw new AssertionError(name);
+            });
+        } catch (AssertionError e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertTrue(thrown.getMessage().endsWith(".xml"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotDirectory() {
+        XMLParser.parseAll(new File(dir, "doc-0.xml"));
+    }
+}
@@ -0,0 +1,127 @@
+package org.yong.util.file.xml.parser;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.cache.XMLDocumentCache;
+import org.yong.util.file.xml.engine.ParseMode;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.engine.XMLParseEngineFactory;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文档解析缓存测试
+ *
+ * @version 1.4
+ */
+public class XMLDocumentCacheTest {
+
+    private File dir;
+
+    private final AtomicInteger parseCount = new AtomicInteger();
+
+    /**
+     * 统计解析次数, 每次解析稍作等待以便并发请求重叠
+     */
+    private final XMLParseEngine countingEngine = source -> {
+        parseCount.incrementAndGet();
+        Thread.sleep(20);
+        return XMLParseEngineFactory.getEngine(ParseMode.STAX).parse(source);
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("xml-cache").toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testValidation() throws Exception {
+        File file = write("a.xml", "<root v=\"1\"/>");
+        XMLDocumentCache cache = new XMLDocumentCache(1 << 20, countingEngine, "UTF-8");
+
+        XMLObject first = cache.get(file);
+        assertSame(first, cache.get(new File(dir, "./a.xml").getPath()));
+        assertEquals(1, parseCount.get());
+
+        // 文件大小和修改时间变化后重新解析
+        write("a.xml", "<root v=\"22\"/>");
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        XMLObject second = cache.get(file);
+        assertNotSame(first, second);
+        assertEquals("22", second.getAttr("v"));
+        assertEquals(2, parseCount.get());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        File a = write("a.xml", "<root><item>a</item></root>");
+        File b = write("b.xml", "<root><item>b</item></root>");
+        File c = write("c.xml", "<root><item>c</item></root>");
+        XMLDocumentCache probe = new XMLDocumentCache(1 << 20);
+        long entryBytes = XMLDocumentCache.estimateRetainedBytes(probe.get(a));
+
+        XMLDocumentCache cache = new XMLDocumentCache(entryBytes * 2, countingEngine, "UTF-8");
+        cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        cache.get(c);
+        assertEquals(2, cache.size());
+        assertTrue(cache.getRetainedBytes() <= entryBytes * 2);
+        assertEquals(3, parseCount.get());
+
+        // b 最近最少使用, 已被淘汰
+        cache.get(a);
+        cache.get(c);
+        assertEquals(3, parseCount.get());
+        cache.get(b);
+        assertEquals(4, parseCount.get());
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        File file = write("a.xml", "<root><item>a</item></root>");
+        XMLDocumentCache cache = new XMLDocumentCache(1 << 20, countingEngine, "UTF-8");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<XMLObject>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(file);
+                }));
+            }
+            start.countDown();
+
+            XMLObject root = futures.get(0).get();
+            for (Future<XMLObject> future : futures)
+                assertSame(root, future.get());
+            assertEquals(1, parseCount.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private File write(String name, String xml) throws Exception {
+        File file = new File(dir, name);
+        FileUtils.write(file, xml, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,68 @@
+package org.yong.util.file.xml.parser;
+
+import org.junit.Test;
+import org.yong.util.entity.TourStation;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.document.XMLDocument;
+import org.yong.util.file.xml.document.XMLElement;
+import org.yong.util.file.xml.engine.ParseMode;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 数组结构文档测试
+ *
+ * @version 1.4
+ */
+public class XMLDocumentTest {
+
+    private static final String[] FILES = {
+            "/xml-test.xml",
+            "/xml-test-1.xml",
+            "/xml-test-engine.xml",
+            "/test1_20200902_145714.xml"
+    };
+
+    @Test
+    public void testSameAsXMLObject() throws Exception {
+        for (String file : FILES) {
+            XMLParser xmlParser = new XMLParser(XMLDocumentTest.class.getResource(file).getFile(), ParseMode.STAX);
+            XMLDocument document = xmlParser.parseDocument();
+            XMLObject root = document.getRoot().toXMLObject();
+            assertTrue(root.isRootElement());
+            assertEquals(file, XMLParserEngineTest.format(xmlParser.parse()), XMLParserEngineTest.format(root));
+        }
+    }
+
+    @Test
+    public void testNavigation() throws Exception {
+        XMLParser xmlParser = new XMLParser(XMLDocumentTest.class.getResource("/test1_20200902_145714.xml").getFile());
+        XMLDocument document = xmlParser.parseDocument();
+        XMLElement root = document.getRoot();
+        assertEquals("TourReport", root.getTagName());
+        assertNull(root.getParent());
+
+        XMLElement task = root.getChildTag("TourTask", 0);
+        assertEquals("test1", task.getAttr("taskName"));
+        assertEquals("", task.getAttr("missing"));
+        assertFalse(task.hasAttr("missing"));
+        assertEquals(3, task.getAttrs().size());
+        assertEquals(root, task.getParent());
+        assertNull(root.getChildTag("TourTask", 1));
+        assertNull(root.getChildTag("Unknown", 0));
+        assertTrue(root.getChildTags("Unknown").isEmpty());
+
+        List<XMLElement> stations = root.getAllChildTags("TourStation");
+        assertEquals(2, stations.size());
+        assertEquals(4, root.getAllChildTags("TourAction").size());
+        assertEquals(2, stations.get(0).getAllChildTags("TourAction").size());
+        assertEquals(stations, root.getChildTag("TourStationList", 0).getChildTags());
+
+        TourStation station = stations.get(1).toXMLObject().toBean(TourStation.class);
+        assertEquals("识别2", station.getStationName());
+        assertEquals(2, station.getTourAction().size());
+    }
+}
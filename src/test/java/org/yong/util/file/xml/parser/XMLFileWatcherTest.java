@@ -0,0 +1,104 @@
+package org.yong.util.file.xml.parser;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.yong.util.entity.TourTask;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.cache.WatchedXMLFile;
+import org.yong.util.file.xml.cache.XMLFileWatcher;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件热加载测试
+ *
+ * @version 1.4
+ */
+public class XMLFileWatcherTest {
+
+    private File dir;
+
+    private XMLFileWatcher watcher;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("xml-watch").toFile();
+        watcher = new XMLFileWatcher();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        watcher.close();
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        File file = new File(dir, "task.xml");
+        write(file, "<TourTask taskName=\"t1\" tourType=\"1\" robotID=\"r1\"/>");
+
+        WatchedXMLFile<TourTask> task = watcher.watch(file, TourTask.class);
+        WatchedXMLFile<XMLObject> root = watcher.watch(file);
+        assertEquals("t1", task.get().getTaskName());
+        assertEquals(1, task.getSnapshot().getVersion());
+
+        write(file, "<TourTask taskName=\"t2\" tourType=\"1\" robotID=\"r1\"/>");
+        assertTrue(waitFor(() -> "t2".equals(task.get().getTaskName())));
+        assertTrue(waitFor(() -> "t2".equals(root.get().getAttr("taskName"))));
+        assertSame(task.getSnapshot().getValue(), task.get());
+
+        // 修改时间和大小都没有变化时不重新解析
+        long version = task.getSnapshot().getVersion();
+        Files.setLastModifiedTime(file.toPath(), Files.getLastModifiedTime(file.toPath()));
+        Thread.sleep(500);
+        assertEquals(version, task.getSnapshot().getVersion());
+
+        // 格式错误时保留原快照
+        write(file, "<TourTask taskName=\"t3\"");
+        Thread.sleep(500);
+        assertEquals("t2", task.get().getTaskName());
+        assertEquals(version, task.getSnapshot().getVersion());
+    }
+
+    @Test
+    public void testUnwatch() throws Exception {
+        File file = new File(dir, "task.xml");
+        write(file, "<TourTask taskName=\"t1\" tourType=\"1\" robotID=\"r1\"/>");
+        WatchedXMLFile<XMLObject> first = watcher.watch(file);
+        WatchedXMLFile<XMLObject> second = watcher.watch(file);
+
+        // 取消其中一个句柄, 另一个继续更新
+        watcher.unwatch(first);
+        write(file, "<TourTask taskName=\"t22\" tourType=\"1\" robotID=\"r1\"/>");
+        assertTrue(waitFor(() -> "t22".equals(second.get().getAttr("taskName"))));
+        assertEquals("t1", first.get().getAttr("taskName"));
+
+        // 取消所有句柄后不再更新, 可以重新监听
+        watcher.unwatch(second);
+        write(file, "<TourTask taskName=\"t333\" tourType=\"1\" robotID=\"r1\"/>");
+        Thread.sleep(500);
+        assertEquals("t22", second.get().getAttr("taskName"));
+
+        WatchedXMLFile<XMLObject> third = watcher.watch(file);
+        assertEquals("t333", third.get().getAttr("taskName"));
+        write(file, "<TourTask taskName=\"t4444\" tourType=\"1\" robotID=\"r1\"/>");
+        assertTrue(waitFor(() -> "t4444".equals(third.get().getAttr("taskName"))));
+    }
+
+    private static void write(File file, String xml) throws Exception {
+        FileUtils.write(file, xml, StandardCharsets.UTF_8);
+    }
+
+    private static boolean waitFor(Supplier<Boolean> condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.get(); i++)
+            Thread.sleep(50);
+        return condition.get();
+    }
+}
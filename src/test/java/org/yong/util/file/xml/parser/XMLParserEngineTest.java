@@ -0,0 +1,275 @@
+package org.yong.util.file.xml.parser;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.engine.ParseMode;
+import org.yong.util.file.xml.engine.XMLParseEngine;
+import org.yong.util.file.xml.engine.XMLParseEngineFactory;
+import org.yong.util.file.xml.engine.XMLSymbolTable;
+import org.yong.util.file.xml.engine.impl.MappedParseEngine;
+import org.yong.util.file.xml.engine.impl.ParallelParseEngine;
+import org.yong.util.file.xml.fmt.XMLObjectFormatterFactory;
+import org.yong.util.file.xml.source.XMLSource;
+import org.yong.util.file.xml.source.XMLSourceFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * 解析引擎一致性测试
+ *
+ * @version 1.4
+ */
+public class XMLParserEngineTest {
+
+    private static final String[] FILES = {
+            "/xml-test.xml",
+            "/xml-test-1.xml",
+            "/xml-test-2.xml",
+            "/xml-test-engine.xml",
+            "/xml-test-transfer.xml",
+            "/test1_20200902_145714.xml"
+    };
+
+    @Test
+    public void testSameAsDom4j() throws Exception {
+        for (String file : FILES) {
+            String path = XMLParserEngineTest.class.getResource(file).getFile();
+            String expect = format(new XMLParser(path, ParseMode.DOM4J).parse());
+            for (ParseMode mode : ParseMode.values()) {
+                XMLObject actual = new XMLParser(path, mode).parse();
+                assertTrue(actual.isRootElement());
+                assertEquals(mode + ":" + file, expect, format(actual));
+            }
+        }
+    }
+
+    @Test
+    public void testContent() throws Exception {
+        String path = XMLParserEngineTest.class.getResource("/xml-test-engine.xml").getFile();
+        for (ParseMode mode : ParseMode.values())
+            assertContent(new XMLParser(path, mode).parse());
+    }
+
+    private void assertContent(XMLObject root) {
+        assertEquals("head text", root.getContent());
+        XMLObject first = root.getChildTag("item", 0);
+        assertEquals("a & b", first.getAttr("name"));
+        assertEquals("first item", first.getContent());
+        assertSame(root, first.getParent());
+
+        XMLObject group = root.getChildTag("group", 0);
+        assertEquals("<cdata> content", group.getChildTag("item", 0).getContent());
+        assertEquals("mixed tail", group.getContent());
+        assertEquals("3", group.getChildTag("item", 1).getAttr("id"));
+        assertEquals("<escaped> 中文", root.getChildTag("item", 1).getContent());
+    }
+
+    @Test
+    public void testSources() throws Exception {
+        String path = XMLParserEngineTest.class.getResource("/test1_20200902_145714.xml").getFile();
+        byte[] bytes = FileUtils.readFileToByteArray(new File(path));
+        String expect = format(new XMLParser(path).parse());
+
+        for (ParseMode mode : ParseMode.values()) {
+            List<XMLSource> sources = new ArrayList<>(Arrays.asList(
+                    XMLSourceFactory.fromFile(new File(path), null),
+                    XMLSourceFactory.fromStream(new ByteArrayInputStream(bytes), null),
+                    XMLSourceFactory.fromBytes(bytes, StandardCharsets.UTF_8.name()),
+                    XMLSourceFactory.fromBuffer(ByteBuffer.wrap(bytes), null)));
+
+            // 字节扫描模式不支持字符流
+            if (ParseMode.MAPPED != mode && ParseMode.PARALLEL != mode && ParseMode.LAZY != mode)
+                sources.add(XMLSourceFactory.fromReader(new StringReader(new String(bytes, StandardCharsets.UTF_8))));
+
+            for (XMLSource source : sources)
+                assertEquals(mode + ":" + source.getClass().getSimpleName(), expect, format(new XMLParser(source, mode).parse()));
+        }
+
+        // 缓冲区可以重复读取, 且不会修改 position
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        for (ParseMode mode : ParseMode.values()) {
+            XMLParser parser = new XMLParser(XMLSourceFactory.fromBuffer(direct, null), mode);
+            assertEquals(expect, format(parser.parse()));
+            assertEquals(expect, format(parser.parse()));
+            assertEquals(0, direct.position());
+        }
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        // 包装标签 + 大量交错的同级子树
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><report>head<list>");
+        for (int i = 0; i < 5000; i++) {
+            xml.append("<task id=\"").append(i).append("\"><station name=\"s").append(i).append("\">站点 ")
+                    .append(i).append("</station><!-- c --></task>");
+            if (0 == i % 7)
+                xml.append("<mark seq=\"").append(i).append("\"/> text ").append(i);
+        }
+        xml.append("</list>tail</report>");
+
+        byte[] bytes = xml.toString().getBytes(StandardCharsets.UTF_8);
+        String expect = format(new XMLParser(XMLSourceFactory.fromBytes(bytes, null)).parse());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            XMLObject root = new XMLParser(XMLSourceFactory.fromBytes(bytes, null)).parse(new ParallelParseEngine(pool));
+            assertEquals(expect, format(root));
+
+            XMLObject list = root.getChildTag("list", 0);
+            assertSame(root, list.getParent());
+            assertSame(list, list.getChildTag("task", 4999).getParent());
+            assertEquals("4999", list.getChildTag("task", 4999).getAttr("id"));
+
+            // 文件超过映射区域大小时按区域映射, 结果与整体映射一致
+            File file = Files.createTempFile("xml-parallel", ".xml").toFile();
+            try {
+                FileUtils.writeByteArrayToFile(file, bytes);
+                XMLSource source = XMLSourceFactory.fromFile(file, null);
+                for (int regionSize : new int[]{48, 256, 1000, 4096})
+                    assertEquals("region:" + regionSize, expect, format(new ParallelParseEngine(pool, null, regionSize).parse(source)));
+
+                // 区域中间的格式错误
+                String malformed = xml.toString().replace("站点 2500</station>", "站点 2500</statoin>");
+                FileUtils.writeByteArrayToFile(file, malformed.getBytes(StandardCharsets.UTF_8));
+                try {
+                    new ParallelParseEngine(pool, null, 256).parse(source);
+                    fail();
+                } catch (RuntimeException e) {
+                    assertTrue(e.getMessage(), e.getMessage().contains("XML格式错误"));
+                }
+            } finally {
+                FileUtils.deleteQuietly(file);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSharedEngine() throws Exception {
+        String path = XMLParserEngineTest.class.getResource("/xml-test-engine.xml").getFile();
+        String expect = format(new XMLParser(path).parse());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (ParseMode mode : ParseMode.values()) {
+                XMLParseEngine engine = XMLParseEngineFactory.getEngine(mode);
+                assertSame(engine, XMLParseEngineFactory.getEngine(mode));
+
+                List<Future<String>> futures = new ArrayList<>();
+                for (int i = 0; i < 64; i++)
+                    futures.add(executor.submit(() -> format(engine.parse(XMLSourceFactory.fromPath(path, "UTF-8")))));
+                for (Future<String> future : futures)
+                    assertEquals(mode.name(), expect, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMappedMalformed() throws Exception {
+        String[] malformed = {"<root><a></b></root>", "<root><a>", "<root a=1/>", "<root>&unknown;</root>"};
+        for (String xml : malformed) {
+            XMLSource source = XMLSourceFactory.fromBytes(xml.getBytes(StandardCharsets.UTF_8), null);
+            try {
+                new XMLParser(source, ParseMode.MAPPED).parse();
+                fail(xml);
+            } catch (RuntimeException e) {
+                assertNotNull(xml, e.getMessage());
+            }
+        }
+
+        XMLSource gbk = XMLSourceFactory.fromBytes("<?xml version=\"1.0\" encoding=\"GBK\"?><root/>".getBytes(StandardCharsets.UTF_8), null);
+        try {
+            new XMLParser(gbk, ParseMode.MAPPED).parse();
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("GBK"));
+        }
+    }
+
+    @Test
+    public void testLazy() throws Exception {
+        String xml = "<root><a id=\"1\">x<b>y</b></a><c/><broken><d></e></broken></root>";
+        XMLSource source = XMLSourceFactory.fromBytes(xml.getBytes(StandardCharsets.UTF_8), null);
+        XMLObject root = new XMLParser(source, ParseMode.LAZY).parse();
+
+        // 只访问正确的子树, 格式错误的子树不会被加载
+        XMLObject a = root.getChildTag("a", 0);
+        assertEquals("1", a.getAttr("id"));
+        assertEquals("x", a.getContent());
+        assertEquals("y", a.getChildTag("b", 0).getContent());
+        assertSame(a, a.getChildTag("b", 0).getParent());
+        assertEquals("", root.getChildTag("c", 0).getContent());
+
+        XMLObject broken = root.getChildTag("broken", 0).getChildTag("d", 0);
+        for (int i = 0; i < 2; i++) {
+            try {
+                broken.getContent();
+                fail();
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("XML格式错误"));
+            }
+        }
+
+        // 多线程同时加载同一个节点
+        byte[] bytes = FileUtils.readFileToByteArray(new File(XMLParserEngineTest.class.getResource("/xml-test-engine.xml").getFile()));
+        String expect = format(new XMLParser(XMLSourceFactory.fromBytes(bytes, null)).parse());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 20; round++) {
+                XMLObject lazyRoot = new XMLParser(XMLSourceFactory.fromBytes(bytes, null), ParseMode.LAZY).parse();
+                List<Future<String>> futures = new ArrayList<>();
+                for (int i = 0; i < 4; i++)
+                    futures.add(executor.submit(() -> format(lazyRoot)));
+                for (Future<String> future : futures)
+                    assertEquals(expect, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSymbolTable() throws Exception {
+        byte[] bytes = "<root><item key=\"1\"><sub/></item><item key=\"2\"><sub/></item></root>".getBytes(StandardCharsets.UTF_8);
+        for (ParseMode mode : ParseMode.values()) {
+            XMLObject root = new XMLParser(XMLSourceFactory.fromBytes(bytes, null), mode).parse();
+            XMLObject first = root.getChildTag("item", 0);
+            XMLObject second = root.getChildTag("item", 1);
+            assertSame(mode.name(), first.getTagName(), second.getTagName());
+            assertSame(mode.name(), first.getChildTag("sub", 0).getTagName(), second.getChildTag("sub", 0).getTagName());
+            assertSame(mode.name(), first.getAttrs().keySet().iterator().next(), second.getAttrs().keySet().iterator().next());
+        }
+
+        // 多次解析共享符号表
+        XMLSymbolTable symbols = new XMLSymbolTable();
+        MappedParseEngine engine = new MappedParseEngine(symbols);
+        XMLObject a = engine.parse(XMLSourceFactory.fromBytes(bytes, null));
+        XMLObject b = engine.parse(XMLSourceFactory.fromBytes(bytes, null));
+        assertSame(a.getChildTag("item", 0).getTagName(), b.getChildTag("item", 1).getTagName());
+        assertEquals(4, symbols.size());
+    }
+
+    static String format(XMLObject root) {
+        return XMLObjectFormatterFactory.createFormatter(true).format(root).toString();
+    }
+}
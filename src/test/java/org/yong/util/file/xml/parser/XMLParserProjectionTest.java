@@ -0,0 +1,85 @@
+package org.yong.util.file.xml.parser;
+
+import lombok.Data;
+import org.junit.Test;
+import org.yong.util.entity.TourStation;
+import org.yong.util.entity.TourTask;
+import org.yong.util.file.xml.XMLObject;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.annotation.FieldType;
+import org.yong.util.file.xml.annotation.XmlField;
+import org.yong.util.file.xml.annotation.XmlTag;
+import org.yong.util.file.xml.source.XMLSourceFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 实体类投影解析测试
+ *
+ * @version 1.4
+ */
+public class XMLParserProjectionTest {
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<TourReport version=\"2\" unused=\"x\">" +
+            "  <Summary time=\"1599058642\" unused=\"y\"><Title>巡检 &amp; 报告</Title><Note>n</Note></Summary>" +
+            "  <TourTask taskName=\"t1\" tourType=\"1\" robotID=\"r1\"/>" +
+            "  <Diagnostics><Frame seq=\"1\"><Data>aaaa</Data></Frame><Frame seq=\"2\"><Data>bbbb</Data></Frame></Diagnostics>" +
+            "  <Groups><Group name=\"g1\">" +
+            "    <TourStation stationName=\"s1\" location=\"1\" endLocation=\"2\" speed=\"3\">" +
+            "      <TourAction mountDvsType=\"1\" actionName=\"a1\" detectedDvsType=\"0\"><SensorInfo time=\"1\"/></TourAction>" +
+            "      <Diagnostics><Frame seq=\"3\"/></Diagnostics>" +
+            "    </TourStation>" +
+            "  </Group></Groups>" +
+            "  <TourStation stationName=\"s2\" location=\"4\" endLocation=\"5\" speed=\"6\"/>" +
+            "</TourReport>";
+
+    @Test
+    public void testParseFor() throws Exception {
+        XMLParser xmlParser = new XMLParser(XMLSourceFactory.fromBytes(XML.getBytes(StandardCharsets.UTF_8), null));
+        Report expect = xmlParser.parse().toBean(Report.class);
+
+        XMLObject pruned = xmlParser.parseFor(Report.class);
+        Report actual = pruned.toBean(Report.class);
+        assertEquals(expect, actual);
+        assertEquals("巡检 & 报告", actual.getTitle());
+        assertEquals(1599058642L, actual.getTime());
+        assertEquals("t1", actual.getTourTask().getTaskName());
+        assertEquals(2, actual.getStations().size());
+        assertEquals(1, actual.getStations().get(0).getTourAction().size());
+
+        // 未映射的标签和属性不保留, 后代标签的祖先只保留结构
+        assertFalse(pruned.getChildTags().containsKey("Diagnostics"));
+        assertFalse(pruned.hasAttr("unused"));
+        assertTrue(pruned.hasAttr("version"));
+        XMLObject summary = pruned.getChildTag("Summary", 0);
+        assertFalse(summary.hasAttr("unused"));
+        assertFalse(summary.getChildTags().containsKey("Note"));
+        XMLObject group = pruned.getChildTag("Groups", 0).getChildTag("Group", 0);
+        assertTrue(group.getAttrs().isEmpty());
+        assertFalse(group.getChildTag("TourStation", 0).getChildTags().containsKey("Diagnostics"));
+    }
+
+    @Data
+    @XmlTag("TourReport")
+    public static class Report {
+
+        @XmlField
+        private int version;
+
+        @XmlField(path = "Summary")
+        private long time;
+
+        @XmlField(name = "Title", type = FieldType.TAG, path = "Summary")
+        private String title;
+
+        @XmlField(type = FieldType.TAG)
+        private TourTask tourTask;
+
+        @XmlField(name = "TourStation", type = FieldType.TAG)
+        private List<TourStation> stations;
+    }
+}
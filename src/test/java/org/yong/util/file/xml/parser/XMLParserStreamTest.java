@@ -0,0 +1,76 @@
+package org.yong.util.file.xml.parser;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.yong.util.entity.TourAction;
+import org.yong.util.entity.TourStation;
+import org.yong.util.file.xml.XMLParser;
+import org.yong.util.file.xml.engine.XMLBeanIterator;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 逐条读取实体测试
+ *
+ * @version 1.4
+ */
+public class XMLParserStreamTest {
+
+    private XMLParser xmlParser;
+
+    @Before
+    public void before() {
+        String xmlPath = XMLParserStreamTest.class.getResource("/test1_20200902_145714.xml").getFile();
+        xmlParser = new XMLParser(xmlPath);
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        List<TourStation> expect = xmlParser.parse().toBeans("TourStation", TourStation.class);
+
+        List<TourStation> actual;
+        try (Stream<TourStation> stations = xmlParser.stream("TourStation", TourStation.class)) {
+            actual = stations.collect(Collectors.toList());
+        }
+        assertEquals(expect, actual);
+        assertEquals("识别1", actual.get(0).getStationName());
+        assertEquals(2, actual.get(0).getTourAction().size());
+    }
+
+    @Test
+    public void testIterator() throws Exception {
+        int count = 0;
+        try (XMLBeanIterator<TourAction> it = xmlParser.iterator("TourAction", TourAction.class)) {
+            while (it.hasNext()) {
+                assertNotNull(it.next());
+                count++;
+            }
+            assertFalse(it.hasNext());
+        }
+        assertEquals(4, count);
+    }
+
+    @Test
+    public void testIteratorClosedOnMappingError() throws Exception {
+        try (XMLBeanIterator<BrokenBean> it = xmlParser.iterator("TourAction", BrokenBean.class)) {
+            try {
+                it.hasNext();
+                fail();
+            } catch (RuntimeException e) {
+                // 映射失败后迭代器已关闭
+            }
+            assertFalse(it.hasNext());
+        }
+    }
+
+    public static class BrokenBean {
+
+        public BrokenBean() {
+            throw new IllegalStateException("broken");
+        }
+    }
+}